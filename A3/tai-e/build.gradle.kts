@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -23,6 +24,17 @@ tasks.compileTestJava { options.encoding = "UTF-8" }
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
+    // -Ptaie.counters=dump|compare enables the regression gate on solver counters
+    listOf("taie.counters", "taie.counters.margin").forEach { key ->
+        project.findProperty(key)?.let { systemProperty(key, it) }
+    }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // report allocation rate along with throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
 }
 
 java {
@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.AnalysisManager;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisPlanner;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.PlanConfig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Long-lived driver which builds the {@link World} once and then executes
+ * analysis plans on it, so that repeated small jobs do not pay the cost
+ * of loading the class path and building the class hierarchy and IR.
+ * <p>
+ * Usage: {@code Daemon [--port <PORT>] <Tai-e options>}. The Tai-e options
+ * are used to build the world. Requests are read line by line from stdin,
+ * or from connections to the given port on the loopback address.
+ * Each request is the path of a plan file, and is answered by a line
+ * {@code ok <elapsed-ms>} or {@code error <message>}, where backslashes
+ * and line breaks of the message are escaped as in Java string literals.
+ * Request {@code quit} stops the daemon.
+ * <p>
+ * Each plan runs with fresh analysis state: analysis configurations are
+ * read anew, and the results of the previous plan are cleared before
+ * the next one runs. Plans are executed one at a time.
+ */
+public class Daemon {
+
+    private static final Logger logger = LogManager.getLogger(Daemon.class);
+
+    private static final String QUIT = "quit";
+
+    /**
+     * Manager of the last executed plan, whose results are cleared
+     * before the next plan runs.
+     */
+    private AnalysisManager lastManager;
+
+    public static void main(String[] args) throws IOException {
+        int port = -1;
+        if (args.length >= 2 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        Main.buildWorld(args);
+        Daemon daemon = new Daemon();
+        if (port == -1) {
+            daemon.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        } else {
+            try (ServerSocket server = new ServerSocket(
+                    port, 0, InetAddress.getLoopbackAddress())) {
+                logger.info("Listening on {}", server.getLocalSocketAddress());
+                boolean quit = false;
+                while (!quit) {
+                    try (Socket socket = server.accept()) {
+                        quit = daemon.serve(
+                                new InputStreamReader(socket.getInputStream(),
+                                        StandardCharsets.UTF_8),
+                                new OutputStreamWriter(socket.getOutputStream(),
+                                        StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests from given reader until the end of input
+     * or a {@code quit} request.
+     *
+     * @return true if a {@code quit} request was received.
+     */
+    boolean serve(Reader reader, Writer writer) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        PrintWriter out = new PrintWriter(writer, true);
+        String line;
+        while ((line = in.readLine()) != null) {
+            String request = line.strip();
+            if (request.equals(QUIT)) {
+                return true;
+            }
+            if (!request.isEmpty()) {
+                out.println(handle(request));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes the plan in given file.
+     *
+     * @return the response to the request.
+     */
+    String handle(String planFile) {
+        long start = System.currentTimeMillis();
+        try {
+            if (lastManager != null) {
+                lastManager.clearResults();
+                lastManager = null;
+            }
+            List<AnalysisConfig> plan = makePlan(new File(planFile));
+            AnalysisManager manager = new AnalysisManager();
+            lastManager = manager;
+            manager.execute(plan);
+            return "ok " + (System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to execute plan " + planFile, e);
+            // a response takes exactly one line, so line breaks
+            // of the message are escaped
+            return "error " + e.toString()
+                    .replace("\\", "\\\\")
+                    .replace("\r", "\\r")
+                    .replace("\n", "\\n");
+        }
+    }
+
+    /**
+     * Reads a plan file and expands it with the analyses it requires,
+     * in the same way as {@link Main} does for option {@code -p}.
+     */
+    private static List<AnalysisConfig> makePlan(File planFile) {
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        ConfigManager manager = new ConfigManager(configs);
+        AnalysisPlanner planner = new AnalysisPlanner(manager);
+        boolean reachableScope = World.get().getOptions()
+                .getScope().equals("reachable");
+        List<PlanConfig> planConfigs = PlanConfig.readConfigs(planFile);
+        manager.overwriteOptions(planConfigs);
+        return planner.makePlan(planConfigs, reachableScope);
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisRequirements;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * <p>
+ * The plan is partitioned into waves by the requirements of the analyses.
+ * Analyses in the same wave do not depend on each other, and they run
+ * concurrently, at most one per available processor. Program analyses
+ * may read any result in {@link World}, so each of them forms a wave
+ * of its own and separates the waves before and after it.
+ * <p>
+ * Results of each wave are computed first and then published into
+ * {@link World}, {@link JClass} and {@link IR} on the calling thread,
+ * in plan order and scope order, so the state seen by later waves does
+ * not depend on thread scheduling.
+ * <p>
+ * Method analyses are independent per {@link IR}, and class analyses are
+ * independent per {@link JClass}, so they are fanned out over the methods
+ * or classes in scope on a work-stealing pool. The number of worker
+ * threads is given by option {@code threads} of each analysis:
+ * {@code 1} (the default) runs the analysis on the calling thread, and
+ * a value {@code <= 0} means the number of available processors.
+ * Analyses of the same wave share one pool, which has as many workers as
+ * the largest {@code threads} of the wave, and at least one per analysis
+ * up to the number of available processors.
+ * <p>
+ * If option {@code cache} of a method analysis names a directory,
+ * results of the analysis are loaded from and stored in a
+ * {@link ResultCache} in that directory, so methods whose IR and
+ * relevant options are unchanged are not analyzed again.
+ * <p>
+ * Scope {@code reachable} is not supported, as this assignment does not
+ * build call graphs.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Number of classes or methods below which a task is not split further.
+     */
+    private static final int SPLIT_THRESHOLD = 16;
+
+    /**
+     * Maps IDs to the configurations of the executed plan.
+     */
+    private final Map<String, AnalysisConfig> plan = Maps.newMap();
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        analysisConfigs.forEach(config -> plan.put(config.getId(), config));
+        for (List<AnalysisConfig> wave : schedule(analysisConfigs)) {
+            if (wave.size() == 1) {
+                AnalysisConfig config = wave.get(0);
+                Timer.runAndCount(() -> runAnalysis(config), config.getId());
+            } else {
+                runConcurrently(wave);
+            }
+        }
+    }
+
+    /**
+     * Clears the results published by the analyses executed by this
+     * manager from {@link World}, {@link JClass}es and {@link IR}s,
+     * so that the program structures can be shared by another plan.
+     */
+    public void clearResults() {
+        for (String id : plan.keySet()) {
+            World.get().clearResult(id);
+            if (classScope != null) {
+                classScope.forEach(c -> c.clearResult(id));
+            }
+            if (methodScope != null) {
+                methodScope.forEach(m -> m.getIR().clearResult(id));
+            }
+        }
+    }
+
+    /**
+     * Partitions the plan into waves. Each analysis is placed in the wave
+     * after the last wave containing one of its requirements, and program
+     * analyses are placed in waves of their own.
+     *
+     * @return the waves in execution order; analyses in each wave
+     * are kept in plan order.
+     */
+    private static List<List<AnalysisConfig>> schedule(List<AnalysisConfig> configs) {
+        Map<String, Integer> levels = Maps.newMap();
+        List<List<AnalysisConfig>> waves = new ArrayList<>();
+        int floor = 0; // lowest wave that non-barrier analyses may join
+        for (AnalysisConfig config : configs) {
+            int level;
+            if (isProgramAnalysis(config)) {
+                level = waves.size();
+                floor = level + 1;
+            } else {
+                level = floor;
+                for (String id : AnalysisRequirements.getRequiredIds(config)) {
+                    Integer required = levels.get(id);
+                    if (required != null) {
+                        level = Math.max(level, required + 1);
+                    }
+                }
+            }
+            levels.put(config.getId(), level);
+            if (level == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(level).add(config);
+        }
+        return waves;
+    }
+
+    private static boolean isProgramAnalysis(AnalysisConfig config) {
+        try {
+            return ProgramAnalysis.class.isAssignableFrom(
+                    Class.forName(config.getAnalysisClass()));
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Analysis analysis = newAnalysis(config);
+        publish(analysis, compute(analysis, null));
+    }
+
+    /**
+     * Runs the analyses of a wave concurrently. The analyses are created
+     * in plan order on the calling thread, and their results are published
+     * in the same order after all of them finish.
+     */
+    private void runConcurrently(List<AnalysisConfig> wave) {
+        // scopes and IRs are created lazily, so build them before
+        // they are shared by multiple analyses
+        getMethodScope().forEach(JMethod::getIR);
+        List<Analysis> analyses = wave.stream()
+                .map(AnalysisManager::newAnalysis)
+                .toList();
+        int parallelism = Math.min(wave.size(),
+                Runtime.getRuntime().availableProcessors());
+        for (Analysis analysis : analyses) {
+            parallelism = Math.max(parallelism, getThreads(analysis));
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Analysis analysis : analyses) {
+                futures.add(pool.submit(() -> Timer.runAndCount(
+                        () -> compute(analysis, pool), analysis.getId(), Level.INFO)));
+            }
+            for (int i = 0; i < analyses.size(); ++i) {
+                publish(analyses.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while running " + wave, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new AnalysisException("Failed to run " + wave, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Analysis newAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            return (Analysis) ctor.newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    /**
+     * Runs an analysis without publishing its results.
+     *
+     * @param pool the pool shared by the wave of the analysis, or null
+     *             if the analysis runs alone and creates its own pool.
+     * @return the result of a program analysis, or an array of results
+     * indexed like the class or method scope.
+     */
+    private Object compute(Analysis analysis, @Nullable ForkJoinPool pool) {
+        if (analysis instanceof ProgramAnalysis pa) {
+            return pa.analyze();
+        } else if (analysis instanceof ClassAnalysis ca) {
+            return analyzeClasses(ca, pool);
+        } else if (analysis instanceof MethodAnalysis ma) {
+            return analyzeMethods(ma, pool);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+            return null;
+        }
+    }
+
+    private void publish(Analysis analysis, Object result) {
+        String id = analysis.getId();
+        if (analysis instanceof ProgramAnalysis) {
+            if (result != null) {
+                World.get().storeResult(id, result);
+            }
+        } else if (analysis instanceof ClassAnalysis) {
+            publish(getClassScope(), (Object[]) result,
+                    (c, r) -> c.storeResult(id, r));
+        } else if (analysis instanceof MethodAnalysis) {
+            publish(getMethodScope(), (Object[]) result,
+                    (m, r) -> m.getIR().storeResult(id, r));
+        }
+    }
+
+    private static <E> void publish(List<E> scope, Object[] results,
+                                    BiConsumer<E, Object> store) {
+        for (int i = 0; i < results.length; ++i) {
+            if (results[i] != null) {
+                store.accept(scope.get(i), results[i]);
+            }
+        }
+    }
+
+    private Object[] analyzeClasses(ClassAnalysis analysis,
+                                    @Nullable ForkJoinPool pool) {
+        List<JClass> classes = getClassScope();
+        Object[] results = new Object[classes.size()];
+        forEachIndex(getThreads(analysis), pool, results.length,
+                i -> results[i] = analysis.analyze(classes.get(i)));
+        return results;
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private Object[] analyzeMethods(MethodAnalysis analysis,
+                                    @Nullable ForkJoinPool pool) {
+        List<JMethod> methods = getMethodScope();
+        Object[] results = new Object[methods.size()];
+        ResultCache cache = getCache(analysis);
+        int threads = getThreads(analysis);
+        if (threads != 1) {
+            // JMethod.getIR() builds IR lazily and is not thread-safe,
+            // so IRs are built before the workers start
+            methods.forEach(JMethod::getIR);
+        }
+        forEachIndex(threads, pool, results.length,
+                i -> results[i] = analyze(analysis, cache, methods.get(i)));
+        if (cache != null) {
+            cache.logStatistics();
+        }
+        return results;
+    }
+
+    private static Object analyze(MethodAnalysis analysis,
+                                  @Nullable ResultCache cache, JMethod method) {
+        IR ir = method.getIR();
+        if (cache == null) {
+            return analysis.analyze(ir);
+        }
+        Object result = cache.load(ir);
+        if (result == null) {
+            result = analysis.analyze(ir);
+            if (result != null) {
+                cache.store(ir, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the result cache of given analysis, or null if
+     * the analysis does not enable caching.
+     */
+    private @Nullable ResultCache getCache(MethodAnalysis analysis) {
+        String dir = analysis.getOptions().get("cache") instanceof String s ?
+                s : null;
+        if (dir == null) {
+            return null;
+        }
+        // the result depends on the options and implementations of
+        // the analysis and of all analyses it (transitively) requires
+        StringBuilder fingerprint = new StringBuilder(analysis.getId());
+        Set<String> visited = Sets.newSet();
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(analysis.getId());
+        while (!stack.isEmpty()) {
+            AnalysisConfig config = plan.get(stack.pop());
+            if (config != null && visited.add(config.getId())) {
+                fingerprint.append('\n')
+                        .append(ResultCache.fingerprint(config));
+                AnalysisRequirements.getRequiredIds(config).forEach(stack::push);
+            }
+        }
+        return new ResultCache(Path.of(dir), analysis.getId(),
+                fingerprint.toString());
+    }
+
+    private static int getThreads(Analysis analysis) {
+        int threads = analysis.getOptions().get("threads") instanceof Number n ?
+                n.intValue() : 1;
+        return threads > 0 ? threads :
+                Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Performs action on the indexes in [0, size), on the calling thread
+     * if threads is 1, otherwise on given pool, or on a new work-stealing
+     * pool of given threads if pool is null.
+     */
+    private static void forEachIndex(int threads, @Nullable ForkJoinPool pool,
+                                     int size, IntConsumer action) {
+        if (threads == 1) {
+            for (int i = 0; i < size; ++i) {
+                action.accept(i);
+            }
+        } else if (pool != null) {
+            pool.invoke(new RangeTask(action, 0, size));
+        } else {
+            ForkJoinPool ownPool = new ForkJoinPool(threads);
+            try {
+                ownPool.invoke(new RangeTask(action, 0, size));
+            } finally {
+                ownPool.shutdown();
+            }
+        }
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Performs an action on a range of indexes of the class or method
+     * scope, splitting the range in halves so that idle workers can steal
+     * them. The action on each index writes only the slot of the index
+     * in the result array.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static class RangeTask extends RecursiveAction {
+
+        private final IntConsumer action;
+
+        private final int from;
+
+        private final int to;
+
+        private RangeTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; ++i) {
+                    action.accept(i);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(action, from, mid),
+                        new RangeTask(action, mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of the results of a method analysis.
+ * <p>
+ * A result is stored in a file named by the SHA-256 hash of the printed
+ * {@link IR} of the method and a fingerprint of the analysis, which covers
+ * the analysis and the analyses it requires, see {@link #fingerprint}.
+ * A changed method body, option or analysis implementation therefore
+ * never hits a stale entry.
+ * <p>
+ * Results refer to statements and variables by their indexes in the IR.
+ * Supported results are sets of statements and {@link NodeResult}s over
+ * the CFG of the method whose facts are {@link CPFact}s or
+ * {@link SetFact}s of variables. Other results are not cached.
+ * This class is thread-safe.
+ */
+final class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    private static final int MAGIC = 0x54434331; // "TCC1"
+
+    // tags of results
+    private static final byte STMT_SET = 1;
+
+    private static final byte NODE_RESULT = 2;
+
+    // tags of facts
+    private static final byte NO_FACT = 0;
+
+    private static final byte CP_FACT = 1;
+
+    private static final byte VAR_SET_FACT = 2;
+
+    // tags of values
+    private static final byte UNDEF = 0;
+
+    private static final byte CONSTANT = 1;
+
+    private static final byte NAC = 2;
+
+    /**
+     * Options which do not affect the results of analyses.
+     */
+    private static final Set<String> EXECUTION_OPTIONS = Set.of("threads", "cache");
+
+    /**
+     * Cache of hashes of class directories and jars.
+     */
+    private static final ConcurrentMap<Path, String> codeHashes =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Numbers of results loaded from and missed in all caches since
+     * the last {@link #resetStatistics()}.
+     */
+    private static final AtomicInteger totalHits = new AtomicInteger();
+
+    private static final AtomicInteger totalMisses = new AtomicInteger();
+
+    private final Path dir;
+
+    private final String id;
+
+    private final String fingerprint;
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    ResultCache(Path dir, String id, String fingerprint) {
+        this.dir = dir.resolve(id);
+        this.id = id;
+        this.fingerprint = fingerprint;
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create cache directory", e);
+        }
+    }
+
+    /**
+     * @return the cached result for given IR, or null if it is absent
+     * or cannot be decoded.
+     */
+    Object load(IR ir) {
+        Path file = dir.resolve(key(ir));
+        Object result = null;
+        if (Files.exists(file)) {
+            try (var in = new DataInputStream(Files.newInputStream(file))) {
+                if (in.readInt() == MAGIC) {
+                    result = read(ir, in);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Failed to load cached {} result of {}",
+                        id, ir.getMethod(), e);
+            }
+        }
+        (result != null ? hits : misses).incrementAndGet();
+        (result != null ? totalHits : totalMisses).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Stores the result for given IR, if the kind of the result is supported.
+     */
+    void store(IR ir, Object result) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            if (!write(ir, result, out)) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode result", e);
+        }
+        Path file = dir.resolve(key(ir));
+        try {
+            // write to a temporary file first, so that concurrent runs
+            // never observe partially written entries
+            Path tmp = Files.createTempFile(dir, null, ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache {} result of {}: {}",
+                    id, ir.getMethod(), e.getMessage());
+        }
+    }
+
+    void logStatistics() {
+        logger.info("{} results of {} loaded from cache, {} computed",
+                hits.get(), id, misses.get());
+    }
+
+    static int getTotalHits() {
+        return totalHits.get();
+    }
+
+    static int getTotalMisses() {
+        return totalMisses.get();
+    }
+
+    static void resetStatistics() {
+        totalHits.set(0);
+        totalMisses.set(0);
+    }
+
+    /**
+     * @return fingerprint of given analysis, i.e., its ID, its options
+     * except {@link #EXECUTION_OPTIONS}, and the hash of the class
+     * directory or jar containing its implementation. As the hash covers
+     * the whole build output, it also changes when the classes used by
+     * the analysis, e.g., the solvers, are edited.
+     */
+    static String fingerprint(AnalysisConfig config) {
+        Map<String, Object> options = new TreeMap<>(new ObjectMapper()
+                .convertValue(config.getOptions(),
+                        new TypeReference<Map<String, Object>>() {}));
+        options.keySet().removeAll(EXECUTION_OPTIONS);
+        return config.getId() + options + " " +
+                hashCodeSource(config.getAnalysisClass());
+    }
+
+    private static String hashCodeSource(String className) {
+        CodeSource source;
+        try {
+            source = Class.forName(className).getProtectionDomain().getCodeSource();
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException("Analysis class " + className +
+                    " is not found", e);
+        }
+        if (source == null) {
+            return "";
+        }
+        Path path;
+        try {
+            path = Paths.get(source.getLocation().toURI());
+        } catch (URISyntaxException | RuntimeException e) {
+            // not a local file, e.g., a nested jar
+            return source.getLocation().toString();
+        }
+        return codeHashes.computeIfAbsent(path, ResultCache::hashPath);
+    }
+
+    /**
+     * @return SHA-256 hash of given jar, or of the class files
+     * (their relative paths and contents) in given directory.
+     */
+    private static String hashPath(Path path) {
+        MessageDigest digest = newDigest();
+        try {
+            if (Files.isDirectory(path)) {
+                List<Path> classFiles;
+                try (Stream<Path> files = Files.walk(path)) {
+                    classFiles = files
+                            .filter(p -> p.toString().endsWith(".class"))
+                            .sorted()
+                            .toList();
+                }
+                for (Path file : classFiles) {
+                    digest.update(path.relativize(file).toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            } else {
+                digest.update(Files.readAllBytes(path));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to hash " + path, e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String key(IR ir) {
+        MessageDigest digest = newDigest();
+        var out = new PrintStream(new DigestOutputStream(
+                OutputStream.nullOutputStream(), digest),
+                false, StandardCharsets.UTF_8);
+        out.println(fingerprint);
+        IRPrinter.print(ir, out);
+        out.flush();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean write(IR ir, Object result, DataOutputStream out)
+            throws IOException {
+        if (result instanceof Set<?> set &&
+                set.stream().allMatch(e -> e instanceof Stmt)) {
+            out.writeByte(STMT_SET);
+            out.writeInt(set.size());
+            for (Object stmt : set) {
+                out.writeInt(((Stmt) stmt).getIndex());
+            }
+            return true;
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (result instanceof NodeResult<?, ?> nodeResult && cfg != null) {
+            @SuppressWarnings("unchecked")
+            var facts = (NodeResult<Stmt, ?>) nodeResult;
+            List<Stmt> nodes = cfg.getNodes()
+                    .stream()
+                    .sorted(Comparator.comparingInt(Stmt::getIndex))
+                    .toList();
+            var buffer = new ByteArrayOutputStream();
+            var body = new DataOutputStream(buffer);
+            for (Stmt node : nodes) {
+                body.writeInt(node.getIndex());
+                if (!writeFact(facts.getInFact(node), body) ||
+                        !writeFact(facts.getOutFact(node), body)) {
+                    return false;
+                }
+            }
+            body.flush();
+            out.writeByte(NODE_RESULT);
+            out.writeInt(nodes.size());
+            buffer.writeTo(out);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean writeFact(Object fact, DataOutputStream out)
+            throws IOException {
+        if (fact == null) {
+            out.writeByte(NO_FACT);
+        } else if (fact instanceof CPFact cpFact) {
+            out.writeByte(CP_FACT);
+            out.writeInt(cpFact.keySet().size());
+            for (Var var : cpFact.keySet()) {
+                Value value = cpFact.get(var);
+                out.writeInt(var.getIndex());
+                if (value.isConstant()) {
+                    out.writeByte(CONSTANT);
+                    out.writeInt(value.getConstant());
+                } else {
+                    out.writeByte(value.isNAC() ? NAC : UNDEF);
+                }
+            }
+        } else if (fact instanceof SetFact<?> setFact &&
+                setFact.stream().allMatch(e -> e instanceof Var)) {
+            out.writeByte(VAR_SET_FACT);
+            out.writeInt(setFact.size());
+            for (Object var : setFact.stream().toList()) {
+                out.writeInt(((Var) var).getIndex());
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static Object read(IR ir, DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        if (tag == STMT_SET) {
+            Set<Stmt> stmts = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+            int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                stmts.add(ir.getStmt(in.readInt()));
+            }
+            return stmts;
+        } else if (tag == NODE_RESULT) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                return null;
+            }
+            // CFG nodes include entry and exit, which are not in the IR
+            Stmt[] nodes = new Stmt[ir.getStmts().size() + 2];
+            cfg.getNodes().forEach(node -> nodes[node.getIndex()] = node);
+            DataflowResult<Stmt, Object> result = new DataflowResult<>();
+            int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                Stmt node = nodes[in.readInt()];
+                result.setInFact(node, readFact(ir, in));
+                result.setOutFact(node, readFact(ir, in));
+            }
+            return result;
+        } else {
+            return null;
+        }
+    }
+
+    private static Object readFact(IR ir, DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NO_FACT -> {
+                return null;
+            }
+            case CP_FACT -> {
+                CPFact fact = new CPFact();
+                int size = in.readInt();
+                for (int i = 0; i < size; ++i) {
+                    Var var = ir.getVar(in.readInt());
+                    Value value = switch (in.readByte()) {
+                        case CONSTANT -> Value.makeConstant(in.readInt());
+                        case NAC -> Value.getNAC();
+                        default -> Value.getUndef();
+                    };
+                    fact.update(var, value);
+                }
+                return fact;
+            }
+            case VAR_SET_FACT -> {
+                SetFact<Var> fact = new SetFact<>();
+                int size = in.readInt();
+                for (int i = 0; i < size; ++i) {
+                    fact.add(ir.getVar(in.readInt()));
+                }
+                return fact;
+            }
+            default -> throw new IOException("Unknown fact tag: " + tag);
+        }
+    }
+}
@@ -66,6 +66,15 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private static final Logger logger = LogManager.getLogger(ResultProcessor.class);
 
+    /**
+     * Orders methods by the line number of their first statement, and
+     * breaks ties by signature, so that the output does not depend on
+     * the order in which methods were analyzed or loaded.
+     */
+    private static final Comparator<JMethod> METHOD_ORDER = Comparator
+            .comparingInt(ResultProcessor::getFirstLineNumber)
+            .thenComparing(JMethod::getSignature);
+
     private final String action;
 
     private PrintStream out;
@@ -159,11 +168,15 @@ public class ResultProcessor extends ProgramAnalysis {
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
                 .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
+                .sorted(METHOD_ORDER);
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    private static int getFirstLineNumber(JMethod method) {
+        IR ir = method.getIR();
+        return ir.getStmts().isEmpty() ? -1 : ir.getStmt(0).getLineNumber();
+    }
+
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
         methods.forEach(method ->
@@ -25,7 +25,9 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
@@ -40,9 +42,13 @@ import pascal.taie.ir.exp.NewExp;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
-import pascal.taie.util.collection.Pair;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
@@ -56,103 +62,101 @@ public class DeadCodeDetection extends MethodAnalysis {
     public Set<Stmt> analyze(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
-        // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
         // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
+        NodeResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        // TODO - finish me
-
-        Set<Stmt> valid = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        Stmt entry = cfg.getEntry();
-        dfs(entry, cfg, valid, constants, liveVars);
-        deadCode.addAll(ir.getStmts());
-        deadCode.removeAll(valid);
+        BitSet reachable;
+        if (getOptions().getBooleanOrDefault("sccp", false)) {
+            // unreachable code and constants are given by SCCP
+            SparseConstantPropagation sccp = new SparseConstantPropagation(cfg);
+            reachable = new BitSet();
+            for (Stmt stmt : ir) {
+                if (sccp.isExecutable(stmt)) {
+                    reachable.set(stmt.getIndex());
+                }
+            }
+        } else {
+            // constant propagation is required only if SCCP is disabled
+            NodeResult<Stmt, CPFact> constants =
+                    ir.getResult(ConstantPropagation.ID);
+            reachable = findReachable(cfg, constants);
+        }
+        for (Stmt stmt : ir) {
+            if (!reachable.get(stmt.getIndex()) || isDeadAssignment(stmt, liveVars)) {
+                deadCode.add(stmt);
+            }
+        }
         return deadCode;
-//         deadCode;
     }
 
-    void dfs(Stmt cur, CFG<Stmt> cfg,
-             Set<Stmt> valid,
-             DataflowResult<Stmt, CPFact> constants,
-             DataflowResult<Stmt, SetFact<Var>> liveVars) {
-        for (Stmt stmt : cfg.getSuccsOf(cur)) {
-            if (valid.contains(stmt))
-                return;
-            valid.add(stmt);
-            if (cfg.getInDegreeOf(stmt) == 0 && !cfg.isEntry(stmt)) {
-                valid.remove(stmt);
-            } else if (stmt instanceof DefinitionStmt definitionStmt) {
-                var lexp = definitionStmt.getLValue();
-                var rexp = definitionStmt.getRValue();
-                if (lexp instanceof Var lvar && !liveVars.getOutFact(stmt).contains(lvar) && hasNoSideEffect(rexp)) {
-                    valid.remove(stmt);
-                }
-                dfs(stmt, cfg, valid, constants, liveVars);
-
-            } else if (stmt instanceof If ifstmt) {
-                var condition = ifstmt.getCondition();
-                var op = condition.getOperator();
-                var lexp = condition.getOperand1();
-                var lres = ConstantPropagation.evaluate(lexp, constants.getInFact(stmt));
-
-                var rexp = condition.getOperand2();
-                var rres = ConstantPropagation.evaluate(rexp, constants.getInFact(stmt));
-
-                if (lres.isConstant() && rres.isConstant()) { //语法糖挺有意思的
-                    boolean isTrue;
-                    int lc = lres.getConstant();
-                    int rc = rres.getConstant();
-                    isTrue = switch (op) {
-                        case EQ -> lc == rc;
-                        case NE -> lc != rc;
-                        case LT -> lc < rc;
-                        case GT -> lc > rc;
-                        case LE -> lc <= rc;
-                        case GE -> lc >= rc;
-                    };
-                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
-                        if (edge.getKind() == Edge.Kind.IF_TRUE && isTrue) {
-                            // kill the true branch
-                            valid.add(edge.getTarget());
-                            dfs(edge.getTarget(), cfg, valid, constants, liveVars);
-                        } else if (edge.getKind() == Edge.Kind.IF_FALSE && !isTrue) {
-                            // kill the false branch
-                            valid.add(edge.getTarget());
-                            dfs(edge.getTarget(), cfg, valid, constants, liveVars);
-                        }
+    /**
+     * Traverses the CFG from the entry, and only follows the branches
+     * which may be taken according to the constants.
+     *
+     * @return indexes of the reachable statements.
+     */
+    private static BitSet findReachable(CFG<Stmt> cfg,
+                                        NodeResult<Stmt, CPFact> constants) {
+        BitSet reachable = new BitSet(cfg.getNumberOfNodes());
+        Deque<Stmt> stack = new ArrayDeque<>();
+        stack.push(cfg.getEntry());
+        while (!stack.isEmpty()) {
+            Stmt stmt = stack.pop();
+            if (reachable.get(stmt.getIndex())) {
+                continue;
+            }
+            reachable.set(stmt.getIndex());
+            if (stmt instanceof If ifStmt) {
+                Value cond = ConstantPropagation.evaluate(
+                        ifStmt.getCondition(), constants.getInFact(stmt));
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    if (!cond.isConstant() || (cond.getConstant() != 0) ==
+                            (edge.getKind() == Edge.Kind.IF_TRUE)) {
+                        stack.push(edge.getTarget());
                     }
-                } else
-                    dfs(stmt, cfg, valid, constants, liveVars);
-
+                }
             } else if (stmt instanceof SwitchStmt switchStmt) {
-                var key = switchStmt.getVar();
-                var keyC = ConstantPropagation.evaluate(key, constants.getInFact(stmt));
-                if (keyC.isConstant()) {
-                    if (switchStmt.getCaseValues().contains(keyC.getConstant())) {
-                        for (Pair<Integer, Stmt> pair : switchStmt.getCaseTargets()) {
-                            if (pair.first() == keyC.getConstant()) {
-                                valid.add(pair.second());
-                                dfs(pair.second(), cfg, valid, constants, liveVars);
-                            }
-                        }
-                    }else { // default case
-                      var defaultTarget=  switchStmt.getDefaultTarget();
-                        valid.add(defaultTarget);
-                        dfs(defaultTarget, cfg, valid, constants, liveVars);
+                Value key = ConstantPropagation.evaluate(
+                        switchStmt.getVar(), constants.getInFact(stmt));
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    if (!key.isConstant() || isTaken(edge, key.getConstant(), switchStmt)) {
+                        stack.push(edge.getTarget());
                     }
-                } else {
-                    dfs(stmt, cfg, valid, constants, liveVars);
                 }
-            } else
-                dfs(stmt, cfg, valid, constants, liveVars);
+            } else {
+                cfg.getSuccsOf(stmt).forEach(stack::push);
+            }
+        }
+        return reachable;
+    }
 
+    /**
+     * @return true if given out edge of a switch statement is taken
+     * when the key of the switch is given value.
+     */
+    private static boolean isTaken(Edge<Stmt> edge, int key, SwitchStmt switchStmt) {
+        if (edge.isSwitchCase()) {
+            return edge.getCaseValue() == key;
+        } else if (edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+            return !switchStmt.getCaseValues().contains(key);
+        } else {
+            return true;
         }
     }
 
+    /**
+     * @return true if given statement assigns a variable which is not live
+     * after the statement, and the assignment has no side effect.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        return stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var lvar &&
+                !liveVars.getOutFact(stmt).contains(lvar) &&
+                hasNoSideEffect(def.getRValue());
+    }
 
     /**
      * @return true if given RValue has no side effect, otherwise false.
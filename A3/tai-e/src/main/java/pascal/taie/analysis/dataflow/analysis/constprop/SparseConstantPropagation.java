@@ -0,0 +1,402 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.solver.SolverCounters;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation (SCCP).
+ * <p>
+ * Instead of keeping a {@link CPFact} for every statement, this analysis
+ * keeps a {@link Value} for every definition of int variables, and
+ * propagates values along def-use chains. At the same time, it tracks
+ * which CFG edges are executable, so that the definitions in unreachable
+ * code do not pollute the values, and branches whose conditions are
+ * constants only make one of their targets executable.
+ * <p>
+ * As the IR is not in SSA form, the value of a variable at a use is
+ * the meet of the values of its reaching definitions whose statements
+ * are executable. The def-use chains are built from one pass of
+ * reaching definitions over the CFG.
+ * <p>
+ * Like the dense analysis, which follows every branch whose condition
+ * is not a constant, branches whose conditions are still UNDEF when
+ * the propagation ends make all their targets executable.
+ * <p>
+ * The work of both passes is counted in {@link SolverCounters}
+ * under {@link #COUNTERS}.
+ */
+public class SparseConstantPropagation {
+
+    /**
+     * Name of the solver counters of this analysis.
+     */
+    public static final String COUNTERS = "sccp";
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final SolverCounters counters = SolverCounters.get(COUNTERS);
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * CFG nodes by their indexes.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * Variables defined by the definitions. The first definitions are
+     * the parameters, which are defined at the entry of the method.
+     */
+    private final List<Var> defVars = new ArrayList<>();
+
+    /**
+     * Statements of the definitions, null for parameters.
+     */
+    private final List<Stmt> defStmts = new ArrayList<>();
+
+    private final List<Value> defValues = new ArrayList<>();
+
+    /**
+     * Ids of the definitions contained by the statements, -1 for
+     * the statements which do not define int variables.
+     */
+    private final int[] defIds;
+
+    /**
+     * Def-use chains, i.e., the indexes of the statements which use
+     * each definition.
+     */
+    private int[][] uses;
+
+    /**
+     * Use-def chains, i.e., the ids of the definitions of used variables
+     * which reach each statement, indexed by the statement index.
+     */
+    private int[][] useDefs;
+
+    private final BitSet executableStmts = new BitSet();
+
+    private final Set<Edge<Stmt>> executableEdges = Sets.newSet();
+
+    public SparseConstantPropagation(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        int nNodes = cfg.getNumberOfNodes();
+        this.nodes = new Stmt[nNodes];
+        cfg.forEach(node -> nodes[node.getIndex()] = node);
+        this.defIds = new int[nNodes];
+        buildDefUseChains();
+        solve();
+    }
+
+    private void buildDefUseChains() {
+        IR ir = cfg.getIR();
+        Arrays.fill(defIds, -1);
+        Map<Var, BitSet> varDefs = Maps.newMap();
+        BitSet paramDefs = new BitSet();
+        for (Var param : ir.getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                int id = addDef(param, null, Value.getNAC());
+                varDefs.computeIfAbsent(param, unused -> new BitSet()).set(id);
+                paramDefs.set(id);
+            }
+        }
+        for (Stmt stmt : ir) {
+            if (stmt instanceof DefinitionStmt<?, ?> def &&
+                    def.getLValue() instanceof Var var &&
+                    ConstantPropagation.canHoldInt(var)) {
+                int id = addDef(var, stmt, Value.getUndef());
+                varDefs.computeIfAbsent(var, unused -> new BitSet()).set(id);
+                defIds[stmt.getIndex()] = id;
+            }
+        }
+        BitSet[] reachingDefs = findReachingDefs(paramDefs, varDefs);
+        // use-def chains keep the reaching definitions of used variables
+        useDefs = new int[nodes.length][];
+        List<List<Integer>> defUses = new ArrayList<>(defVars.size());
+        for (int id = 0; id < defVars.size(); ++id) {
+            defUses.add(new ArrayList<>());
+        }
+        for (Stmt stmt : nodes) {
+            BitSet defs = new BitSet();
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && varDefs.containsKey(var)) {
+                    defs.or(varDefs.get(var));
+                }
+            }
+            defs.and(reachingDefs[stmt.getIndex()]);
+            useDefs[stmt.getIndex()] = defs.isEmpty() ? NO_IDS : defs.stream().toArray();
+            defs.stream().forEach(id -> defUses.get(id).add(stmt.getIndex()));
+        }
+        uses = new int[defUses.size()][];
+        for (int id = 0; id < uses.length; ++id) {
+            uses[id] = defUses.get(id).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private int addDef(Var var, Stmt stmt, Value value) {
+        defVars.add(var);
+        defStmts.add(stmt);
+        defValues.add(value);
+        return defVars.size() - 1;
+    }
+
+    /**
+     * Computes reaching definitions of the int variables.
+     *
+     * @return the definitions which reach each statement, indexed by
+     * the statement index.
+     */
+    private BitSet[] findReachingDefs(BitSet paramDefs, Map<Var, BitSet> varDefs) {
+        BitSet[] in = new BitSet[nodes.length];
+        BitSet[] out = new BitSet[nodes.length];
+        for (int i = 0; i < nodes.length; ++i) {
+            in[i] = new BitSet();
+            counters.onNewFact();
+            out[i] = new BitSet();
+            counters.onNewFact();
+        }
+        out[cfg.getEntry().getIndex()].or(paramDefs);
+        Deque<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet();
+        for (Stmt node : nodes) {
+            if (!cfg.isEntry(node)) {
+                workList.add(node);
+                inWorkList.set(node.getIndex());
+            }
+        }
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            counters.onPoll();
+            counters.onTransfer();
+            int index = node.getIndex();
+            inWorkList.clear(index);
+            BitSet nodeIn = in[index];
+            cfg.getPredsOf(node).forEach(pred -> nodeIn.or(out[pred.getIndex()]));
+            BitSet nodeOut = (BitSet) nodeIn.clone();
+            counters.onNewFact();
+            int id = defIds[index];
+            if (id != -1) {
+                nodeOut.andNot(varDefs.get(defVars.get(id)));
+                nodeOut.set(id);
+            }
+            if (!nodeOut.equals(out[index])) {
+                out[index] = nodeOut;
+                for (Stmt succ : cfg.getSuccsOf(node)) {
+                    if (!inWorkList.get(succ.getIndex())) {
+                        workList.add(succ);
+                        inWorkList.set(succ.getIndex());
+                    }
+                }
+            }
+        }
+        return in;
+    }
+
+    private void solve() {
+        Deque<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+        Deque<Stmt> useWorkList = new ArrayDeque<>();
+        executableStmts.set(cfg.getEntry().getIndex());
+        flowWorkList.addAll(cfg.getOutEdgesOf(cfg.getEntry()));
+        do {
+            propagate(flowWorkList, useWorkList);
+            // branches whose conditions are still UNDEF may go anywhere
+            executableStmts.stream()
+                    .mapToObj(i -> nodes[i])
+                    .filter(this::hasUndefCondition)
+                    .forEach(stmt -> cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                        if (!executableEdges.contains(edge)) {
+                            flowWorkList.add(edge);
+                        }
+                    }));
+        } while (!flowWorkList.isEmpty());
+    }
+
+    private void propagate(Deque<Edge<Stmt>> flowWorkList,
+                           Deque<Stmt> useWorkList) {
+        while (!flowWorkList.isEmpty() || !useWorkList.isEmpty()) {
+            if (!flowWorkList.isEmpty()) {
+                Edge<Stmt> edge = flowWorkList.poll();
+                counters.onPoll();
+                if (executableEdges.add(edge)) {
+                    Stmt target = edge.getTarget();
+                    if (!executableStmts.get(target.getIndex())) {
+                        executableStmts.set(target.getIndex());
+                        visit(target, flowWorkList, useWorkList);
+                    }
+                }
+            } else {
+                Stmt stmt = useWorkList.poll();
+                counters.onPoll();
+                if (executableStmts.get(stmt.getIndex())) {
+                    visit(stmt, flowWorkList, useWorkList);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates an executable statement, updates the value of its
+     * definition and decides which of its out edges are executable.
+     */
+    private void visit(Stmt stmt, Deque<Edge<Stmt>> flowWorkList,
+                       Deque<Stmt> useWorkList) {
+        counters.onTransfer();
+        int defId = defIds[stmt.getIndex()];
+        if (defId != -1) {
+            RValue rValue = ((DefinitionStmt<?, ?>) stmt).getRValue();
+            Value value = ConstantPropagation.evaluate(rValue, getInFact(stmt));
+            Value oldValue = defValues.get(defId);
+            Value newValue = meet(oldValue, value);
+            if (!newValue.equals(oldValue)) {
+                defValues.set(defId, newValue);
+                // the new value may enable the definition to reach
+                // statements which have been visited
+                for (int use : uses[defId]) {
+                    useWorkList.add(nodes[use]);
+                }
+            }
+        }
+        if (stmt instanceof If ifStmt) {
+            Value cond = getCondition(ifStmt);
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (cond.isNAC() ||
+                        (cond.isConstant() && (cond.getConstant() != 0) ==
+                                (edge.getKind() == Edge.Kind.IF_TRUE))) {
+                    flowWorkList.add(edge);
+                }
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Value key = getValue(switchStmt.getVar(), stmt);
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (key.isNAC() || (key.isConstant() && isTaken(
+                        edge, key.getConstant(), switchStmt))) {
+                    flowWorkList.add(edge);
+                }
+            }
+        } else {
+            flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+        }
+    }
+
+    private Value getCondition(If ifStmt) {
+        return ConstantPropagation.evaluate(
+                ifStmt.getCondition(), getInFact(ifStmt));
+    }
+
+    private boolean hasUndefCondition(Stmt stmt) {
+        if (stmt instanceof If ifStmt) {
+            return getCondition(ifStmt).isUndef();
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            return getValue(switchStmt.getVar(), stmt).isUndef();
+        } else {
+            return false;
+        }
+    }
+
+    private static boolean isTaken(Edge<Stmt> edge, int key, SwitchStmt switchStmt) {
+        if (edge.isSwitchCase()) {
+            return edge.getCaseValue() == key;
+        } else if (edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+            return !switchStmt.getCaseValues().contains(key);
+        } else {
+            return true;
+        }
+    }
+
+    private Value meet(Value v1, Value v2) {
+        counters.onMeet();
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef() || v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    /**
+     * @return a fact which holds the values of the variables used by
+     * given statement.
+     */
+    private CPFact getInFact(Stmt stmt) {
+        CPFact fact = new CPFact();
+        counters.onNewFact();
+        for (int defId : useDefs[stmt.getIndex()]) {
+            Var var = defVars.get(defId);
+            fact.update(var, getValue(var, stmt));
+        }
+        return fact;
+    }
+
+    /**
+     * @return true if given statement is executable, otherwise false.
+     */
+    public boolean isExecutable(Stmt stmt) {
+        return executableStmts.get(stmt.getIndex());
+    }
+
+    /**
+     * @return true if given CFG edge is executable, otherwise false.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    /**
+     * @return the value of given variable when it is used at given statement.
+     */
+    public Value getValue(Var var, Stmt stmt) {
+        if (!ConstantPropagation.canHoldInt(var)) {
+            return Value.getNAC();
+        }
+        Value value = Value.getUndef();
+        for (int defId : useDefs[stmt.getIndex()]) {
+            Stmt defStmt = defStmts.get(defId);
+            if (defVars.get(defId) == var &&
+                    (defStmt == null || isExecutable(defStmt))) {
+                value = meet(value, defValues.get(defId));
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A {@link NodeResult} which only keeps the facts at the boundaries
+ * of basic blocks. The facts of the nodes in a block are materialized
+ * by replaying the transfer functions of the block, when any of them
+ * is queried for the first time. Like the results of {@link
+ * pascal.taie.analysis.dataflow.solver.Solver}, materialized facts of
+ * {@link Indexable} nodes are kept in an {@link IndexedDataflowResult}.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowResult<Node, Fact> implements MutableNodeResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final BlockCFG<Node> blockCFG;
+
+    private final Object[] blockInFacts;
+
+    private final Object[] blockOutFacts;
+
+    /**
+     * Materialized facts of the nodes.
+     */
+    private final MutableNodeResult<Node, Fact> nodeFacts;
+
+    /**
+     * Indexes of the blocks whose node facts have been materialized.
+     */
+    private final BitSet materialized = new BitSet();
+
+    public BlockDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                               BlockCFG<Node> blockCFG) {
+        this.analysis = analysis;
+        this.blockCFG = blockCFG;
+        int nBlocks = blockCFG.getNumberOfNodes();
+        this.blockInFacts = new Object[nBlocks];
+        this.blockOutFacts = new Object[nBlocks];
+        CFG<Node> cfg = blockCFG.getCFG();
+        this.nodeFacts = cfg.getEntry() instanceof Indexable ?
+                new IndexedDataflowResult<>(cfg.getNumberOfNodes()) :
+                new DataflowResult<>();
+    }
+
+    public BlockCFG<Node> getBlockCFG() {
+        return blockCFG;
+    }
+
+    /**
+     * @return the flowing-in fact of given block.
+     */
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(BasicBlock<Node> block) {
+        return (Fact) blockInFacts[block.getIndex()];
+    }
+
+    /**
+     * Associates a data-flow fact with a block as its flowing-in fact.
+     */
+    public void setInFact(BasicBlock<Node> block, Fact fact) {
+        blockInFacts[block.getIndex()] = fact;
+    }
+
+    /**
+     * @return the flowing-out fact of given block.
+     */
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(BasicBlock<Node> block) {
+        return (Fact) blockOutFacts[block.getIndex()];
+    }
+
+    /**
+     * Associates a data-flow fact with a block as its flowing-out fact.
+     */
+    public void setOutFact(BasicBlock<Node> block, Fact fact) {
+        blockOutFacts[block.getIndex()] = fact;
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        materialize(node);
+        return nodeFacts.getInFact(node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        nodeFacts.setInFact(node, fact);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        materialize(node);
+        return nodeFacts.getOutFact(node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        nodeFacts.setOutFact(node, fact);
+    }
+
+    /**
+     * Materializes the facts of the nodes in the block of given node.
+     * The first (last) node of the block takes the in (out) fact of
+     * the block, and the facts in between are computed by the transfer
+     * functions, in forward or backward direction of the analysis.
+     */
+    private void materialize(Node node) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null || materialized.get(block.getIndex())) {
+            return;
+        }
+        materialized.set(block.getIndex());
+        List<Node> nodes = block.getNodes();
+        int last = nodes.size() - 1;
+        if (analysis.isForward()) {
+            Fact in = getInFact(block);
+            for (int i = 0; i <= last; ++i) {
+                Node n = nodes.get(i);
+                Fact out;
+                if (i == last) {
+                    out = getOutFact(block);
+                } else {
+                    out = analysis.newInitialFact();
+                    analysis.transferNode(n, in, out);
+                }
+                nodeFacts.setInFact(n, in);
+                nodeFacts.setOutFact(n, out);
+                in = out;
+            }
+        } else {
+            Fact out = getOutFact(block);
+            for (int i = last; i >= 0; --i) {
+                Node n = nodes.get(i);
+                Fact in;
+                if (i == 0) {
+                    in = getInFact(block);
+                } else {
+                    in = analysis.newInitialFact();
+                    analysis.transferNode(n, in, out);
+                }
+                nodeFacts.setInFact(n, in);
+                nodeFacts.setOutFact(n, out);
+                out = in;
+            }
+        }
+    }
+}
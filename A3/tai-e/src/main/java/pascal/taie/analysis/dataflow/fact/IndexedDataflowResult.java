@@ -0,0 +1,142 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link NodeResult} which stores data-flow facts in arrays indexed
+ * by the ids of nodes, instead of maps from nodes to facts.
+ * This is used when nodes carry dense ids, e.g., {@link Indexable} nodes.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> implements MutableNodeResult<Node, Fact> {
+
+    /**
+     * Maps each node to its id.
+     */
+    private final ToIntFunction<Node> indexer;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    /**
+     * @param indexer  maps each node to its id, which should be dense,
+     *                 or negative for the nodes without facts. Such nodes
+     *                 always have null facts, and setting their facts
+     *                 throws {@link IllegalArgumentException}.
+     * @param capacity the expected number of ids
+     */
+    public IndexedDataflowResult(ToIntFunction<Node> indexer, int capacity) {
+        this.indexer = indexer;
+        this.inFacts = new Object[capacity];
+        this.outFacts = new Object[capacity];
+    }
+
+    /**
+     * Creates a result indexed by {@link Indexable#getIndex()}.
+     */
+    public IndexedDataflowResult(int capacity) {
+        this(node -> ((Indexable) node).getIndex(), capacity);
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return get(inFacts, indexer.applyAsInt(node));
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        setInFact(indexer.applyAsInt(node), fact);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return get(outFacts, indexer.applyAsInt(node));
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        setOutFact(indexer.applyAsInt(node), fact);
+    }
+
+    /**
+     * @return the flowing-in fact of the node of given id,
+     * or null if the id is negative.
+     */
+    public Fact getInFact(int id) {
+        return get(inFacts, id);
+    }
+
+    /**
+     * Associates a data-flow fact with the node of given id
+     * as its flowing-in fact.
+     */
+    public void setInFact(int id, Fact fact) {
+        checkId(id);
+        inFacts = ensureCapacity(inFacts, id);
+        inFacts[id] = fact;
+    }
+
+    /**
+     * @return the flowing-out fact of the node of given id,
+     * or null if the id is negative.
+     */
+    public Fact getOutFact(int id) {
+        return get(outFacts, id);
+    }
+
+    /**
+     * Associates a data-flow fact with the node of given id
+     * as its flowing-out fact.
+     */
+    public void setOutFact(int id, Fact fact) {
+        checkId(id);
+        outFacts = ensureCapacity(outFacts, id);
+        outFacts[id] = fact;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact get(Object[] facts, int i) {
+        return 0 <= i && i < facts.length ? (Fact) facts[i] : null;
+    }
+
+    private static void checkId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException(
+                    "Cannot set facts of node without id: " + id);
+        }
+    }
+
+    private static Object[] ensureCapacity(Object[] facts, int i) {
+        return i < facts.length ? facts :
+                Arrays.copyOf(facts, Math.max(i + 1, facts.length * 2));
+    }
+}
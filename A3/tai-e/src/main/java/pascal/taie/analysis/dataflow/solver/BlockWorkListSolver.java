@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.BlockDataflowResult;
+import pascal.taie.analysis.dataflow.fact.MutableNodeResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Work-list solver which iterates over basic blocks instead of nodes.
+ * Only the facts at block boundaries are kept during solving, and
+ * the transfer function of a block is the composition of the transfer
+ * functions of its nodes.
+ */
+class BlockWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    BlockWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected MutableNodeResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new BlockDataflowResult<>(analysis, new BlockCFG<>(cfg));
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
+        var blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG<Node> blockCFG = blockResult.getBlockCFG();
+        for (BasicBlock<Node> block : blockCFG.getBlocks()) {
+            if (block == blockCFG.getEntry()) {
+                blockResult.setInFact(block, newBoundaryFact(cfg));
+                blockResult.setOutFact(block, newBoundaryFact(cfg));
+            } else {
+                blockResult.setInFact(block, newInitialFact());
+                blockResult.setOutFact(block, newInitialFact());
+            }
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
+        var blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG<Node> blockCFG = blockResult.getBlockCFG();
+        for (BasicBlock<Node> block : blockCFG.getBlocks()) {
+            if (block == blockCFG.getExit()) {
+                blockResult.setInFact(block, newBoundaryFact(cfg));
+                blockResult.setOutFact(block, newBoundaryFact(cfg));
+            } else {
+                blockResult.setInFact(block, newInitialFact());
+                blockResult.setOutFact(block, newInitialFact());
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
+        var blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG<Node> blockCFG = blockResult.getBlockCFG();
+        WorkList<Node> workList = new WorkList<>(blockCFG);
+        while (!workList.isEmpty()) {
+            BasicBlock<Node> block = workList.poll();
+            counters.onPoll();
+            if (block == blockCFG.getEntry()) {
+                continue;
+            }
+            Fact in = blockResult.getInFact(block);
+            blockCFG.getPredsOf(block).forEach(pred ->
+                    meetInto(blockResult.getOutFact(pred), in));
+            List<Node> nodes = block.getNodes();
+            Fact fact = in;
+            for (int i = 0; i < nodes.size() - 1; ++i) {
+                Fact out = newInitialFact();
+                transferNode(nodes.get(i), fact, out);
+                fact = out;
+            }
+            if (transferNode(block.getLastNode(), fact,
+                    blockResult.getOutFact(block))) {
+                blockCFG.getSuccsOf(block).forEach(workList::add);
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
+        var blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG<Node> blockCFG = blockResult.getBlockCFG();
+        WorkList<Node> workList = new WorkList<>(blockCFG);
+        while (!workList.isEmpty()) {
+            BasicBlock<Node> block = workList.poll();
+            counters.onPoll();
+            if (block == blockCFG.getExit()) {
+                continue;
+            }
+            Fact out = blockResult.getOutFact(block);
+            blockCFG.getSuccsOf(block).forEach(succ ->
+                    meetInto(blockResult.getInFact(succ), out));
+            List<Node> nodes = block.getNodes();
+            Fact fact = out;
+            for (int i = nodes.size() - 1; i > 0; --i) {
+                Fact in = newInitialFact();
+                transferNode(nodes.get(i), in, fact);
+                fact = in;
+            }
+            if (transferNode(block.getFirstNode(),
+                    blockResult.getInFact(block), fact)) {
+                blockCFG.getPredsOf(block).forEach(workList::add);
+            }
+        }
+    }
+
+    /**
+     * Work-list of blocks without duplicate entries.
+     */
+    private static class WorkList<Node> {
+
+        private final Queue<BasicBlock<Node>> queue = new ArrayDeque<>();
+
+        private final BitSet inQueue = new BitSet();
+
+        private WorkList(BlockCFG<Node> blockCFG) {
+            blockCFG.getBlocks().forEach(this::add);
+        }
+
+        private void add(BasicBlock<Node> block) {
+            if (!inQueue.get(block.getIndex())) {
+                inQueue.set(block.getIndex());
+                queue.add(block);
+            }
+        }
+
+        private BasicBlock<Node> poll() {
+            BasicBlock<Node> block = queue.poll();
+            inQueue.clear(block.getIndex());
+            return block;
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+}
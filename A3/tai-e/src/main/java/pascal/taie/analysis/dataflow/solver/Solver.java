@@ -22,9 +22,14 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.MutableNodeResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +42,12 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    protected final SolverCounters counters;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
+        this.counters = SolverCounters.get(analysis instanceof MethodAnalysis m ?
+                m.getId() : analysis.getClass().getSimpleName());
     }
 
     /**
@@ -49,14 +58,26 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis.
+     *
+     * @param blockLevel if true, the solver iterates over basic blocks
+     *                   instead of nodes.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, boolean blockLevel) {
+        return blockLevel ? new BlockWorkListSolver<>(analysis) :
+                new WorkListSolver<>(analysis);
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
      * @param cfg control-flow graph where the analysis is performed on
      * @return the analysis result
      */
-    public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = initialize(cfg);
+    public NodeResult<Node, Fact> solve(CFG<Node> cfg) {
+        MutableNodeResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
         return result;
     }
@@ -66,8 +87,8 @@ public abstract class Solver<Node, Fact> {
      *
      * @return the initialized data-flow result
      */
-    private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+    private MutableNodeResult<Node, Fact> initialize(CFG<Node> cfg) {
+        MutableNodeResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,26 +97,38 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
-    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    /**
+     * Creates an empty data-flow result for given CFG. If the nodes are
+     * {@link Indexable}, the facts are stored in arrays indexed by the nodes.
+     */
+    protected MutableNodeResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Indexable) {
+            return new IndexedDataflowResult<>(cfg.getNumberOfNodes());
+        } else {
+            return new DataflowResult<>();
+        }
+    }
+
+    protected void initializeForward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
         Node entryNode = cfg.getEntry();
-        result.setOutFact(entryNode, analysis.newBoundaryFact(cfg));
-        result.setInFact(entryNode, analysis.newBoundaryFact(cfg));
+        result.setOutFact(entryNode, newBoundaryFact(cfg));
+        result.setInFact(entryNode, newBoundaryFact(cfg));
         for (Node node : cfg) {
             if (!cfg.isEntry(node)) {
-                result.setInFact(node, this.analysis.newInitialFact());
-                result.setOutFact(node, this.analysis.newInitialFact());
+                result.setInFact(node, newInitialFact());
+                result.setOutFact(node, newInitialFact());
             }
         }
     }
 
-    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void initializeBackward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
         Node exitNode = cfg.getExit();
-        result.setInFact(exitNode, analysis.newBoundaryFact(cfg));
-        result.setInFact(cfg.getExit(), this.analysis.newBoundaryFact(cfg));
+        result.setInFact(exitNode, newBoundaryFact(cfg));
+        result.setInFact(cfg.getExit(), newBoundaryFact(cfg));
         for (Node node : cfg) {
             if (!cfg.isExit(node)) {
-                result.setInFact(node, this.analysis.newInitialFact());
-                result.setOutFact(node, this.analysis.newInitialFact());
+                result.setInFact(node, newInitialFact());
+                result.setOutFact(node, newInitialFact());
             }
         }
     }
@@ -103,7 +136,7 @@ public abstract class Solver<Node, Fact> {
     /**
      * Solves the data-flow problem for given CFG.
      */
-    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    private void doSolve(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
         if (analysis.isForward()) {
             doSolveForward(cfg, result);
         } else {
@@ -111,7 +144,29 @@ public abstract class Solver<Node, Fact> {
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    // delegates of the analysis, which update the counters
+
+    protected Fact newBoundaryFact(CFG<Node> cfg) {
+        counters.onNewFact();
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    protected Fact newInitialFact() {
+        counters.onNewFact();
+        return analysis.newInitialFact();
+    }
+
+    protected void meetInto(Fact fact, Fact target) {
+        counters.onMeet();
+        analysis.meetInto(fact, target);
+    }
+
+    protected boolean transferNode(Node node, Fact in, Fact out) {
+        counters.onTransfer();
+        return analysis.transferNode(node, in, out);
+    }
+
+    protected abstract void doSolveForward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result);
 
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    protected abstract void doSolveBackward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result);
 }
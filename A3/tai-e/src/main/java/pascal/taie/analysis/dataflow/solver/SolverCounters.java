@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deterministic work counters of data-flow solvers, aggregated per
+ * analysis over all solved CFGs. Unlike wall-clock time, the counters
+ * depend only on the analyzed program and the solving algorithm, thus
+ * they can be checked against a baseline to catch algorithmic regressions.
+ * As methods may be analyzed concurrently, the counters are thread-safe.
+ * <p>
+ * Besides the solvers of this package, analyses which solve data-flow
+ * problems with their own work lists, e.g., SCCP, count here too.
+ */
+public final class SolverCounters {
+
+    private static final ConcurrentMap<String, SolverCounters> counters =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Number of work-list polls, or node visits for round-robin iteration.
+     */
+    private final LongAdder polls = new LongAdder();
+
+    private final LongAdder transfers = new LongAdder();
+
+    private final LongAdder meets = new LongAdder();
+
+    /**
+     * Number of data-flow facts allocated by the solvers.
+     */
+    private final LongAdder facts = new LongAdder();
+
+    private SolverCounters() {
+    }
+
+    /**
+     * @return the counters of given analysis.
+     */
+    public static SolverCounters get(String analysis) {
+        return counters.computeIfAbsent(analysis, unused -> new SolverCounters());
+    }
+
+    public void onPoll() {
+        polls.increment();
+    }
+
+    public void onTransfer() {
+        transfers.increment();
+    }
+
+    public void onMeet() {
+        meets.increment();
+    }
+
+    public void onNewFact() {
+        facts.increment();
+    }
+
+    /**
+     * Clears the counters of all analyses. The solvers created before
+     * resetting do not count anymore.
+     */
+    public static void reset() {
+        counters.clear();
+    }
+
+    /**
+     * @return the current counters of all analyses, from names of
+     * the form "analysis.counter" to the values, in order of the names.
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((analysis, c) -> {
+            result.put(analysis + ".polls", c.polls.sum());
+            result.put(analysis + ".transfers", c.transfers.sum());
+            result.put(analysis + ".meets", c.meets.sum());
+            result.put(analysis + ".facts", c.facts.sum());
+        });
+        return result;
+    }
+}
@@ -23,7 +23,7 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.MutableNodeResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
 import java.util.LinkedList;
@@ -36,22 +36,23 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     }
 
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveForward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
         Queue<Node> queue = new LinkedList<>();
         for (Node node : cfg)
             queue.add(node);
         while (!queue.isEmpty()) {
             Node node = queue.poll();
+            counters.onPoll();
             Fact inFact = result.getInFact(node);
 
             cfg.getPredsOf(node).forEach(pre -> {
                 if (!cfg.isEntry(node)) {
                     if (result.getInFact(node) == null)
-                        result.setInFact(node, analysis.newInitialFact());
+                        result.setInFact(node, newInitialFact());
                 }
-                this.analysis.meetInto(result.getOutFact(pre), inFact);
+                meetInto(result.getOutFact(pre), inFact);
             });
-            boolean changed = analysis.transferNode(node, inFact, result.getOutFact(node));
+            boolean changed = transferNode(node, inFact, result.getOutFact(node));
             if(changed){
                 queue.addAll(cfg.getSuccsOf(node));
             }
@@ -59,20 +60,21 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected void doSolveBackward(CFG<Node> cfg, MutableNodeResult<Node, Fact> result) {
         for (int number = 0; ; number++) {
             boolean done = true;
             for (Node node : cfg) {
+                counters.onPoll();
                 Fact outFact = result.getOutFact(node);
                 cfg.getSuccsOf(node).forEach(succ -> {
                     if (!cfg.isExit(node)) {
                         if (result.getOutFact(node) == null)
-                            result.setOutFact(node, analysis.newInitialFact());
+                            result.setOutFact(node, newInitialFact());
                     }
-                    this.analysis.meetInto(result.getInFact(succ), outFact);
+                    meetInto(result.getInFact(succ), outFact);
                 });
                 if (!cfg.isExit(node)) {
-                    boolean changed = this.analysis.transferNode(node, result.getInFact(node), outFact);
+                    boolean changed = transferNode(node, result.getInFact(node), outFact);
                     if (changed)
                         done = false;
                 }
@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Basic-block view of a {@link CFG}. The entry and exit nodes of
+ * the CFG always form their own blocks.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class BlockCFG<N> implements Graph<BasicBlock<N>> {
+
+    private final CFG<N> cfg;
+
+    private final List<BasicBlock<N>> blocks = new ArrayList<>();
+
+    private final Map<N, BasicBlock<N>> blockOf;
+
+    private final List<Set<BasicBlock<N>>> preds = new ArrayList<>();
+
+    private final List<Set<BasicBlock<N>>> succs = new ArrayList<>();
+
+    public BlockCFG(CFG<N> cfg) {
+        this.cfg = cfg;
+        this.blockOf = Maps.newMap(cfg.getNumberOfNodes());
+        for (N node : cfg) {
+            if (isLeader(node)) {
+                addBlock(node);
+            }
+        }
+        // the remaining nodes are in unreachable cycles without leaders
+        for (N node : cfg) {
+            if (!blockOf.containsKey(node)) {
+                addBlock(node);
+            }
+        }
+        for (BasicBlock<N> block : blocks) {
+            Set<BasicBlock<N>> blockPreds = Sets.newHybridSet();
+            cfg.getPredsOf(block.getFirstNode())
+                    .forEach(pred -> blockPreds.add(blockOf.get(pred)));
+            preds.add(blockPreds);
+            Set<BasicBlock<N>> blockSuccs = Sets.newHybridSet();
+            cfg.getSuccsOf(block.getLastNode())
+                    .forEach(succ -> blockSuccs.add(blockOf.get(succ)));
+            succs.add(blockSuccs);
+        }
+    }
+
+    /**
+     * @return true if given node starts a basic block.
+     */
+    private boolean isLeader(N node) {
+        if (cfg.isEntry(node) || cfg.isExit(node)) {
+            return true;
+        }
+        Set<N> nodePreds = cfg.getPredsOf(node);
+        if (nodePreds.size() != 1) {
+            return true;
+        }
+        N pred = nodePreds.iterator().next();
+        return cfg.isEntry(pred) || cfg.getSuccsOf(pred).size() != 1;
+    }
+
+    /**
+     * Adds a block which starts from given node, and extends it along
+     * the single successors until a leader or a visited node is met.
+     */
+    private void addBlock(N first) {
+        List<N> nodes = new ArrayList<>();
+        N node = first;
+        while (true) {
+            nodes.add(node);
+            Set<N> nodeSuccs = cfg.getSuccsOf(node);
+            if (cfg.isExit(node) || nodeSuccs.size() != 1) {
+                break;
+            }
+            N succ = nodeSuccs.iterator().next();
+            if (isLeader(succ) || succ == first || blockOf.containsKey(succ)) {
+                break;
+            }
+            node = succ;
+        }
+        BasicBlock<N> block = new BasicBlock<>(blocks.size(), nodes);
+        blocks.add(block);
+        nodes.forEach(n -> blockOf.put(n, block));
+    }
+
+    /**
+     * @return the underlying CFG.
+     */
+    public CFG<N> getCFG() {
+        return cfg;
+    }
+
+    public BasicBlock<N> getEntry() {
+        return blockOf.get(cfg.getEntry());
+    }
+
+    public BasicBlock<N> getExit() {
+        return blockOf.get(cfg.getExit());
+    }
+
+    /**
+     * @return the block which contains given node.
+     */
+    public BasicBlock<N> getBlockOf(N node) {
+        return blockOf.get(node);
+    }
+
+    /**
+     * @return all blocks, ordered by their indexes.
+     */
+    public List<BasicBlock<N>> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock<N> block) {
+        return block.getIndex() < blocks.size()
+                && blocks.get(block.getIndex()) == block;
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock<N> source, BasicBlock<N> target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getPredsOf(BasicBlock<N> block) {
+        return Collections.unmodifiableSet(preds.get(block.getIndex()));
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getSuccsOf(BasicBlock<N> block) {
+        return Collections.unmodifiableSet(succs.get(block.getIndex()));
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getNodes() {
+        Set<BasicBlock<N>> nodes = Sets.newHybridOrderedSet();
+        nodes.addAll(blocks);
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
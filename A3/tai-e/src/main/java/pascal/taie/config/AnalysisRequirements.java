@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.config;
+
+import java.util.List;
+
+/**
+ * Provides access to the requirements declared by analysis configurations.
+ */
+public final class AnalysisRequirements {
+
+    private AnalysisRequirements() {
+    }
+
+    /**
+     * @return IDs of the analyses required by the given configuration.
+     * Requirements with conditions, e.g., {@code (sccp=false)} in
+     * {@code constprop(sccp=false)}, are only included if the options
+     * of the configuration satisfy the conditions, as the planner does.
+     */
+    public static List<String> getRequiredIds(AnalysisConfig config) {
+        return config.getRequires()
+                .stream()
+                .filter(require -> Configs.satisfyConditions(
+                        Configs.extractConditions(require), config.getOptions()))
+                .map(require -> Configs.extractId(require).strip())
+                .toList();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class ResultCacheTest {
+
+    private static final String DIR = "src/test/resources/dataflow/deadcode/";
+
+    @Rule
+    public TemporaryFolder cacheDir = new TemporaryFolder();
+
+    @Test
+    public void testDeadCodeCache() {
+        String cache = "cache:" + cacheDir.getRoot();
+        for (String main : new String[]{
+                "ControlFlowUnreachable", "UnreachableIfBranch",
+                "UnreachableSwitchBranch", "DeadAssignment", "Loops"}) {
+            // first run computes and stores all results
+            ResultCache.resetStatistics();
+            testDCD(main, cache);
+            Map<String, String> computed = getDeadCode();
+            Assert.assertEquals(0, ResultCache.getTotalHits());
+            Assert.assertTrue(ResultCache.getTotalMisses() > 0);
+
+            // second run loads all results
+            ResultCache.resetStatistics();
+            testDCD(main, cache);
+            Assert.assertEquals(computed, getDeadCode());
+            Assert.assertEquals(0, ResultCache.getTotalMisses());
+            Assert.assertTrue(ResultCache.getTotalHits() > 0);
+
+            // changing an option of a required analysis invalidates the results
+            ResultCache.resetStatistics();
+            testDCD(main, cache, "-a", "cfg=dump:true");
+            Assert.assertEquals(computed, getDeadCode());
+            Assert.assertEquals(0, ResultCache.getTotalHits());
+            Assert.assertTrue(ResultCache.getTotalMisses() > 0);
+        }
+    }
+
+    private static void testDCD(String main, String cache, String... opts) {
+        String[] args = new String[opts.length + 5];
+        args[0] = cache;
+        args[1] = "-a";
+        args[2] = "livevar=strongly:false";
+        args[3] = "-a";
+        args[4] = "constprop=edge-refine:false";
+        System.arraycopy(opts, 0, args, 5, opts.length);
+        Tests.test(main, DIR, DeadCodeDetection.ID, args);
+    }
+
+    /**
+     * @return dead code of each method of the application classes.
+     */
+    private static Map<String, String> getDeadCode() {
+        Map<String, String> deadCode = new TreeMap<>();
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> deadCode.put(m.getSignature(), toString(m)));
+        return deadCode;
+    }
+
+    private static String toString(JMethod method) {
+        Set<Stmt> stmts = method.getIR().getResult(DeadCodeDetection.ID);
+        return stmts.stream()
+                .sorted(Comparator.comparingInt(Stmt::getIndex))
+                .map(s -> s.getIndex() + "@L" + s.getLineNumber() + ": " + s)
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -25,14 +25,21 @@ package pascal.taie.analysis;
 import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverCounters;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Static utility methods for testing.
@@ -53,7 +60,23 @@ public final class Tests {
     private static final boolean DUMP_CFG = false;
 
     /**
-     * Starts an analysis for a specific test case.
+     * Mode of the regression gate on data-flow solver counters, i.e.,
+     * "dump" to record the counters to the baselines, or "compare" to
+     * check the counters against the baselines. The gate is disabled
+     * if absent.
+     */
+    private static final String COUNTERS_ACTION =
+            System.getProperty("taie.counters");
+
+    /**
+     * Max fraction by which a counter can exceed its baseline.
+     */
+    private static final double COUNTERS_MARGIN = Double.parseDouble(
+            System.getProperty("taie.counters.margin", "0.1"));
+
+    /**
+     * Starts an analysis for a specific test case. The solver counters
+     * of this run are not checked.
      *
      * @param main      the main class to be analyzed
      * @param classPath where the main class is located
@@ -61,6 +84,24 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        testInMode(null, main, classPath, id, opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case in given mode of the
+     * analysis. Different modes do different work, so each mode has its
+     * own baseline of solver counters, {@code <main>-<id>-<mode>-counters.txt}.
+     * The counters are dumped or checked only if the results match.
+     *
+     * @param mode      the mode to be checked by the counters gate,
+     *                  or null to skip the gate
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param id        ID of the analysis to be executed
+     * @param opts      options for the analysis
+     */
+    public static void testInMode(@Nullable String mode, String main,
+                                  String classPath, String id, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -86,6 +127,7 @@ public final class Tests {
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
+        SolverCounters.reset();
         Main.main(args.toArray(new String[0]));
         if (action.equals("compare")) {
             Set<String> mismatches = World.get().getResult(ResultProcessor.ID);
@@ -93,6 +135,53 @@ public final class Tests {
                             String.join("\n", mismatches),
                     mismatches.isEmpty());
         }
+        if (COUNTERS_ACTION != null && mode != null) {
+            checkCounters(Paths.get(classPath,
+                    String.format("%s-%s-%s-counters.txt", main, id, mode)));
+        }
+    }
+
+    /**
+     * Dumps the solver counters of the last run to the baseline file,
+     * or checks them against the baseline file, according to
+     * {@link #COUNTERS_ACTION}. Counters absent from the baseline are
+     * ignored, so that adding a counter does not invalidate existing
+     * baselines, but a missing baseline file fails the comparison.
+     */
+    private static void checkCounters(Path baselineFile) {
+        Map<String, Long> counters = SolverCounters.snapshot();
+        try {
+            if (COUNTERS_ACTION.equals("dump")) {
+                List<String> lines = new ArrayList<>();
+                counters.forEach((name, value) -> lines.add(name + ": " + value));
+                Files.write(baselineFile, lines);
+                return;
+            }
+            Assert.assertTrue("Baseline of solver counters " + baselineFile +
+                            " does not exist, record it with -Ptaie.counters=dump",
+                    Files.exists(baselineFile));
+            Map<String, Long> baseline = new TreeMap<>();
+            for (String line : Files.readAllLines(baselineFile)) {
+                int i = line.indexOf(':');
+                if (i > 0) {
+                    baseline.put(line.substring(0, i).trim(),
+                            Long.parseLong(line.substring(i + 1).trim()));
+                }
+            }
+            List<String> exceeded = new ArrayList<>();
+            baseline.forEach((name, expected) -> {
+                Long given = counters.get(name);
+                if (given != null && given > expected * (1 + COUNTERS_MARGIN)) {
+                    exceeded.add(String.format("%s, baseline: %d, given: %d",
+                            name, expected, given));
+                }
+            });
+            Assert.assertTrue("Solver counters exceed baseline " +
+                            baselineFile + ":\n" + String.join("\n", exceeded),
+                    exceeded.isEmpty());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public static void testPTA(String dir, String main, String... opts) {
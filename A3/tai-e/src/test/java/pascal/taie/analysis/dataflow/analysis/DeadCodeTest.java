@@ -19,19 +19,47 @@
  * You should have received a copy of the GNU Lesser General Public
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
-
 package pascal.taie.analysis.dataflow.analysis;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
+/**
+ * Runs each test case with unreachable code found by constant propagation
+ * and by SCCP, and with the required analyses solved on statements and on
+ * basic blocks, which must all produce the same results.
+ */
+@RunWith(Parameterized.class)
 public class DeadCodeTest {
 
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> modes() {
+        return List.of("dense", "block-level", "sccp");
+    }
+
+    @Parameterized.Parameter
+    public String mode;
+
     void testDCD(String inputClass) {
-        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
-                DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+        switch (mode) {
+            case "block-level" -> Tests.testInMode(mode, inputClass,
+                    "src/test/resources/dataflow/deadcode/", DeadCodeDetection.ID,
+                    "-a", "livevar=strongly:false;block-level:true",
+                    "-a", "constprop=edge-refine:false;block-level:true");
+            // constant propagation is not required by SCCP
+            case "sccp" -> Tests.testInMode(mode, inputClass,
+                    "src/test/resources/dataflow/deadcode/", DeadCodeDetection.ID,
+                    "sccp:true",
+                    "-a", "livevar=strongly:false");
+            default -> Tests.testInMode(mode, inputClass,
+                    "src/test/resources/dataflow/deadcode/", DeadCodeDetection.ID,
+                    "-a", "livevar=strongly:false",
+                    "-a", "constprop=edge-refine:false");
+        }
     }
 
     @Test
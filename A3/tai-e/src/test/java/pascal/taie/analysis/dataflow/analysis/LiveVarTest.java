@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import pascal.taie.analysis.Tests;
+
+import java.util.List;
+
+/**
+ * Runs each test case with the statement-level and the block-level
+ * solvers, which must produce the same results.
+ */
+@RunWith(Parameterized.class)
+public class LiveVarTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> modes() {
+        return List.of("dense", "block-level");
+    }
+
+    @Parameterized.Parameter
+    public String mode;
+
+    void testLV(String inputClass) {
+        Tests.testInMode(mode, inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariableAnalysis.ID,
+                "strongly:false;block-level:" + mode.equals("block-level"));
+    }
+
+    @Test
+    public void testAssign() {
+        testLV("Assign");
+    }
+
+    @Test
+    public void testBranch() {
+        testLV("Branch");
+    }
+
+    @Test
+    public void testBranchLoop() {
+        testLV("BranchLoop");
+    }
+
+    @Test
+    public void Array() {
+        testLV("Array");
+    }
+
+    @Test
+    public void Fibonacci() {
+        testLV("Fibonacci");
+    }
+
+    @Test
+    public void Reference() {
+        testLV("Reference");
+    }
+}
@@ -0,0 +1,9 @@
+class Array {
+
+    int arrayNAC() {
+        int iarr[] = { 1, 2, 3 };
+        iarr[1] = 5;
+        return iarr[0] + iarr[1] + iarr[2];
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+class Branch {
+
+    int ifElse(int m, int n, int k) {
+        int x = m;
+        if (n > 0) {
+            return x + n;
+        } else {
+            return k + n;
+        }
+    }
+}
@@ -24,7 +24,7 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
@@ -122,7 +122,7 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
         solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        NodeResult<Node, Fact> result = solver.solve();
         finish();
         return result;
     }
@@ -22,17 +22,17 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
-import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Maps;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Solver for inter-procedural data-flow analysis.
@@ -45,9 +45,29 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
-    private DataflowResult<Node, Fact> result;
+    /**
+     * ICFG nodes, indexed by their global ids.
+     */
+    private List<Node> nodes;
 
-    private Queue<Node> workList;
+    /**
+     * In edges of each node, indexed by the global ids of the nodes.
+     */
+    private List<List<ICFGEdge<Node>>> inEdges;
+
+    /**
+     * Global ids of the sources of {@link #inEdges}.
+     */
+    private int[][] inEdgeSources;
+
+    /**
+     * Global ids of the successors of each node.
+     */
+    private int[][] succs;
+
+    private IndexedDataflowResult<Node, Fact> result;
+
+    private Queue<Integer> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -55,23 +75,50 @@ class InterSolver<Method, Node, Fact> {
         this.icfg = icfg;
     }
 
-    DataflowResult<Node, Fact> solve() {
-        result = new DataflowResult<>();
+    NodeResult<Node, Fact> solve() {
+        index();
         initialize();
         doSolve();
         return result;
     }
 
+    /**
+     * Gives each ICFG node a global id, and precomputes the in edges and
+     * successors of the nodes by ids, so that facts are accessed
+     * by array indexes instead of hash lookups during solving.
+     */
+    private void index() {
+        nodes = new ArrayList<>(icfg.getNodes().size());
+        Map<Node, Integer> ids = Maps.newMap(icfg.getNodes().size());
+        for (Node node : icfg) {
+            ids.put(node, nodes.size());
+            nodes.add(node);
+        }
+        int n = nodes.size();
+        inEdges = new ArrayList<>(n);
+        inEdgeSources = new int[n][];
+        succs = new int[n][];
+        for (int id = 0; id < n; ++id) {
+            Node node = nodes.get(id);
+            List<ICFGEdge<Node>> edges = List.copyOf(icfg.getInEdgesOf(node));
+            inEdges.add(edges);
+            inEdgeSources[id] = edges.stream()
+                    .mapToInt(edge -> ids.get(edge.getSource()))
+                    .toArray();
+            succs[id] = icfg.getSuccsOf(node)
+                    .stream()
+                    .mapToInt(ids::get)
+                    .toArray();
+        }
+        result = new IndexedDataflowResult<>(
+                node -> ids.getOrDefault(node, -1), n);
+    }
+
     private void initialize() {
         // TODO - finish me
-        icfg.entryMethods().forEach(method -> {
-            Node entryNode = icfg.getEntryOf(method);
-            result.setInFact(entryNode, analysis.newInitialFact());
-            result.setOutFact(entryNode, analysis.newInitialFact());
-        });
-        for (Node node : icfg) {
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+        for (int id = 0; id < nodes.size(); ++id) {
+            result.setInFact(id, analysis.newInitialFact());
+            result.setOutFact(id, analysis.newInitialFact());
         }
 //        icfg.entryMethods().forEach(method -> {
 //            Node entry = icfg.getEntryOf(method);
@@ -84,26 +131,27 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
         // TODO - finish me
         workList = new LinkedList<>();
-        for (Node node : icfg) {
-            workList.add(node);
+        for (int id = 0; id < nodes.size(); ++id) {
+            workList.add(id);
         }
 
         while (!workList.isEmpty()) {
-            Node node = workList.poll();
-            Set<Node> pres = icfg.getPredsOf(node);
-            Fact inFact = result.getInFact(node);
-            for (Node pre : pres) {
-                Fact out = result.getOutFact(pre);
-                for (ICFGEdge<Node> inEdge : icfg.getInEdgesOf(node)) {
-                    if (inEdge.getSource().equals(pre)) {
-                        Fact tmp = analysis.transferEdge(inEdge, out);
-                        analysis.meetInto(tmp, inFact);
-                    }
+            int id = workList.poll();
+            Fact inFact = result.getInFact(id);
+            List<ICFGEdge<Node>> edges = inEdges.get(id);
+            int[] sources = inEdgeSources[id];
+            for (int i = 0; i < sources.length; ++i) {
+                Fact tmp = analysis.transferEdge(edges.get(i),
+                        result.getOutFact(sources[i]));
+                analysis.meetInto(tmp, inFact);
+            }
+            boolean changed = analysis.transferNode(nodes.get(id),
+                    inFact, result.getOutFact(id));
+            if (changed) {
+                for (int succ : succs[id]) {
+                    workList.add(succ);
                 }
             }
-            boolean changed = analysis.transferNode(node,inFact,result.getOutFact(node));
-            if(changed)
-                workList.addAll(icfg.getSuccsOf(node));
         }
     }
 }
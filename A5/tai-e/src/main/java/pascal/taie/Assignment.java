@@ -22,6 +22,8 @@
 
 package pascal.taie;
 
+import pascal.taie.frontend.soot.SynchronizedIRWorldBuilder;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,14 +33,23 @@ import java.util.List;
  */
 public class Assignment {
 
+    private static final String NO_PRE_BUILD_IR = "--no-pre-build-ir";
+
     public static void main(String[] args) {
         if (args.length > 0) {
             List<String> argList = new ArrayList<>();
-            Collections.addAll(argList, "-pp", "-p", "plan.yml");
             Collections.addAll(argList, args);
+            // --no-pre-build-ir drops -pp, so IR is built on first
+            // JMethod.getIR() instead of for the whole class path
+            if (argList.remove(NO_PRE_BUILD_IR)) {
+                argList.addAll(0, List.of("--world-builder",
+                        SynchronizedIRWorldBuilder.class.getName(), "-p", "plan.yml"));
+            } else {
+                argList.addAll(0, List.of("-pp", "-p", "plan.yml"));
+            }
             Main.main(argList.toArray(new String[0]));
         } else {
-            System.out.println("Usage: -cp <CLASS_PATH> -m <CLASS_NAME>");
+            System.out.println("Usage: -cp <CLASS_PATH> -m <CLASS_NAME> [--no-pre-build-ir]");
         }
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alias classes computed by {@link Steensgaard}. Variables in the same
+ * class may point to the same objects; variables in different classes
+ * never do.
+ */
+public class AliasClasses {
+
+    private final Map<Var, Integer> varClasses;
+
+    private final List<Set<Obj>> classObjects;
+
+    private final Set<JMethod> reachableMethods;
+
+    private MultiMap<Integer, Var> classVars;
+
+    AliasClasses(Map<Var, Integer> varClasses,
+                 List<Set<Obj>> classObjects,
+                 Set<JMethod> reachableMethods) {
+        this.varClasses = varClasses;
+        this.classObjects = classObjects;
+        this.reachableMethods = reachableMethods;
+    }
+
+    /**
+     * @return number of alias classes.
+     */
+    public int getClassCount() {
+        return classObjects.size();
+    }
+
+    /**
+     * @return id of the alias class of given variable, or -1 if
+     * the variable is not in any reachable method.
+     */
+    public int getClassOf(Var var) {
+        return varClasses.getOrDefault(var, -1);
+    }
+
+    /**
+     * @return the objects that the variables in given class may point to.
+     */
+    public Set<Obj> getObjects(int classId) {
+        return Collections.unmodifiableSet(classObjects.get(classId));
+    }
+
+    /**
+     * @return the variables in given class.
+     */
+    public Set<Var> getVars(int classId) {
+        if (classVars == null) {
+            classVars = Maps.newMultiMap();
+            varClasses.forEach((var, id) -> classVars.put(id, var));
+        }
+        return classVars.get(classId);
+    }
+
+    /**
+     * @return true if v1 and v2 may point to the same object.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        int c1 = getClassOf(v1);
+        return c1 != -1 && c1 == getClassOf(v2)
+                && !classObjects.get(c1).isEmpty();
+    }
+
+    /**
+     * @return the methods reachable in the unification-based call graph,
+     * which is a superset of those found by the inclusion-based analysis.
+     */
+    public Set<JMethod> getReachableMethods() {
+        return Collections.unmodifiableSet(reachableMethods);
+    }
+}
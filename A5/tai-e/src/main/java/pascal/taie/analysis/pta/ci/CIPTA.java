@@ -22,19 +22,30 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.util.Timer;
 
 /**
  * Context-insensitive pointer analysis.
+ * <p>
+ * If option {@code alias-pre-pass} is set, {@link Steensgaard} runs
+ * first, and its {@link AliasClasses} are stored in {@link World}
+ * under {@link Steensgaard#ID}.
  */
 public class CIPTA extends ProgramAnalysis {
 
     public static final String ID = "cipta";
 
+    private static final Logger logger = LogManager.getLogger(CIPTA.class);
+
     public CIPTA(AnalysisConfig config) {
         super(config);
     }
@@ -42,10 +53,47 @@ public class CIPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
-        solver.solve();
-        CIPTAResult result = solver.getResult();
+        if (getOptions().getBooleanOrDefault("alias-pre-pass", false)) {
+            AliasClasses aliasClasses = Timer.runAndCount(
+                    () -> new Steensgaard(heapModel).solve(),
+                    "Steensgaard pre-analysis", Level.INFO);
+            logger.info("{} alias classes, {} reachable methods",
+                    aliasClasses.getClassCount(),
+                    aliasClasses.getReachableMethods().size());
+            // published for clients which need cheap may-alias queries
+            World.get().storeResult(Steensgaard.ID, aliasClasses);
+        }
+        CIPTAResult result;
+        int threads = getThreads();
+        if (threads == 1) {
+            Solver solver = new Solver(heapModel,
+                    getOptions().getString("work-list"));
+            solver.solve();
+            result = solver.getResult();
+        } else {
+            String workList = getOptions().getString("work-list");
+            if (workList != null && !workList.equals("fifo")) {
+                logger.warn("Option work-list ({}) only applies to" +
+                        " the sequential solver, and is ignored with {} threads",
+                        workList, threads);
+            }
+            ParallelSolver solver = new ParallelSolver(heapModel, threads);
+            solver.solve();
+            result = solver.getResult();
+        }
         new ResultProcessor(getOptions()).process(result);
         return result;
     }
+
+    /**
+     * @return number of solver threads given by option {@code threads}:
+     * a value {@code <= 0} means the number of available processors,
+     * and {@code 1} (the default) runs the sequential {@link Solver}.
+     */
+    private int getThreads() {
+        int threads = getOptions().get("threads") instanceof Number n ?
+                n.intValue() : 1;
+        return threads > 0 ? threads :
+                Runtime.getRuntime().availableProcessors();
+    }
 }
@@ -0,0 +1,493 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Multi-threaded variant of {@link Solver}. It computes the same
+ * (unique) fixed point, and returns it as the same {@link CIPTAResult}.
+ * <p>
+ * Work is partitioned by pointer: each pointer node accumulates the
+ * objects propagated to it in a pending set, and at most one task
+ * processes a node at a time. Points-to sets are bit sets over dense
+ * object ids, guarded by a fixed array of striped locks. PFG edges,
+ * reachable methods and call edges are kept in concurrent sets, so
+ * call edges are discovered concurrently in {@link #processCall}.
+ */
+class ParallelSolver {
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final HeapModel heapModel;
+
+    private final int threads;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final AtomicInteger nodeCounter = new AtomicInteger();
+
+    private final Map<Var, Node> varNodes = Maps.newConcurrentMap();
+
+    private final Map<JField, Node> staticFieldNodes = Maps.newConcurrentMap();
+
+    private final Map<Pair<Obj, JField>, Node> instanceFieldNodes = Maps.newConcurrentMap();
+
+    private final Map<Obj, Node> arrayIndexNodes = Maps.newConcurrentMap();
+
+    private final Map<Obj, Integer> objIds = Maps.newConcurrentMap();
+
+    /**
+     * Objects indexed by their ids. Guarded by itself.
+     */
+    private final List<Obj> objects = new ArrayList<>();
+
+    private final Set<JMethod> reachableMethods = ConcurrentHashMap.newKeySet();
+
+    /**
+     * IRs of the methods accessed by the solver.
+     */
+    private final Map<JMethod, IR> irs = Maps.newConcurrentMap();
+
+    private final Set<Edge<Invoke, JMethod>> callEdges = ConcurrentHashMap.newKeySet();
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Number of submitted tasks which have not finished. A task submits
+     * its subtasks before it finishes, so the solving is done when the
+     * number drops to 0. Waiting for the quiescence of the pool is not
+     * reliable, as the pool may look quiescent while a worker is about
+     * to take a task.
+     */
+    private final AtomicInteger unfinishedTasks = new AtomicInteger();
+
+    private ForkJoinPool pool;
+
+    private JMethod main;
+
+    ParallelSolver(HeapModel heapModel, int threads) {
+        this.heapModel = heapModel;
+        this.threads = threads;
+        for (int i = 0; i < locks.length; ++i) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        main = World.get().getMainMethod();
+        pool = new ForkJoinPool(threads);
+        try {
+            submit(() -> addReachable(main));
+            synchronized (unfinishedTasks) {
+                while (unfinishedTasks.get() != 0) {
+                    unfinishedTasks.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException(
+                    "Interrupted while solving CI pointer analysis", e);
+        } finally {
+            pool.shutdown();
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            throw new AnalysisException("Parallel CI pointer analysis failed", t);
+        }
+    }
+
+    private void submit(Runnable task) {
+        unfinishedTasks.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                if (unfinishedTasks.decrementAndGet() == 0) {
+                    synchronized (unfinishedTasks) {
+                        unfinishedTasks.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Node of pointer flow graph with a concurrent points-to set.
+     */
+    private static class Node {
+
+        private final int id;
+
+        private final Pointer pointer;
+
+        /**
+         * Successors of this node. Guarded by concurrent set.
+         */
+        private final Set<Node> succs = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Points-to set. Guarded by lock of this node.
+         */
+        private final BitSet pts = new BitSet();
+
+        /**
+         * Objects propagated to this node but not processed yet.
+         * Guarded by lock of this node.
+         */
+        private final BitSet pending = new BitSet();
+
+        /**
+         * Whether a task has been submitted for this node.
+         * Guarded by lock of this node.
+         */
+        private boolean scheduled;
+
+        private Node(int id, Pointer pointer) {
+            this.id = id;
+            this.pointer = pointer;
+        }
+    }
+
+    private Object lockOf(Node node) {
+        return locks[node.id & (LOCK_STRIPES - 1)];
+    }
+
+    private <K> Node getNode(Map<K, Node> nodes, K key, Function<K, Pointer> factory) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = nodes.computeIfAbsent(key, k ->
+                    new Node(nodeCounter.getAndIncrement(), factory.apply(k)));
+        }
+        return node;
+    }
+
+    private Node getVarNode(Var var) {
+        return getNode(varNodes, var, VarPtr::new);
+    }
+
+    private Node getStaticFieldNode(JField field) {
+        return getNode(staticFieldNodes, field, StaticField::new);
+    }
+
+    private Node getInstanceFieldNode(Obj base, JField field) {
+        return getNode(instanceFieldNodes, new Pair<>(base, field),
+                p -> new InstanceField(p.first(), p.second()));
+    }
+
+    private Node getArrayIndexNode(Obj array) {
+        return getNode(arrayIndexNodes, array, ArrayIndex::new);
+    }
+
+    private int getObjId(Obj obj) {
+        return objIds.computeIfAbsent(obj, o -> {
+            synchronized (objects) {
+                objects.add(o);
+                return objects.size() - 1;
+            }
+        });
+    }
+
+    private Obj getObj(int id) {
+        synchronized (objects) {
+            return objects.get(id);
+        }
+    }
+
+    /**
+     * Processes new reachable method.
+     */
+    private void addReachable(JMethod method) {
+        if (!reachableMethods.add(method)) {
+            return;
+        }
+        for (Stmt stmt : getIR(method).getStmts()) {
+            if (stmt instanceof New newStmt) {
+                Obj obj;
+                synchronized (heapModel) {
+                    obj = heapModel.getObj(newStmt);
+                }
+                BitSet objs = new BitSet();
+                objs.set(getObjId(obj));
+                addEntry(getVarNode(newStmt.getLValue()), objs);
+            } else if (stmt instanceof Copy copy) {
+                addPFGEdge(getVarNode(copy.getRValue()),
+                        getVarNode(copy.getLValue()));
+            } else if (stmt instanceof LoadField load && load.isStatic()) {
+                addPFGEdge(getStaticFieldNode(resolveField(load.getFieldRef())),
+                        getVarNode(load.getLValue()));
+            } else if (stmt instanceof StoreField store && store.isStatic()) {
+                addPFGEdge(getVarNode(store.getRValue()),
+                        getStaticFieldNode(resolveField(store.getFieldRef())));
+            } else if (stmt instanceof Invoke invoke && invoke.isStatic()) {
+                JMethod callee = resolveCallee(null, invoke);
+                if (callee != null) {
+                    addCallEdge(new Edge<>(CallKind.STATIC, invoke, callee));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an edge "source -> target" to the PFG.
+     */
+    private void addPFGEdge(Node source, Node target) {
+        if (source.succs.add(target)) {
+            // objects added to source after this snapshot are
+            // propagated by the task that adds them, which sees the new edge
+            BitSet pts;
+            synchronized (lockOf(source)) {
+                pts = (BitSet) source.pts.clone();
+            }
+            if (!pts.isEmpty()) {
+                addEntry(target, pts);
+            }
+        }
+    }
+
+    /**
+     * Adds objs to the pending set of node, and submits a task
+     * for the node if there is none.
+     */
+    private void addEntry(Node node, BitSet objs) {
+        boolean schedule;
+        synchronized (lockOf(node)) {
+            node.pending.or(objs);
+            schedule = !node.scheduled;
+            node.scheduled = true;
+        }
+        if (schedule) {
+            submit(() -> process(node));
+        }
+    }
+
+    /**
+     * Propagates the pending objects of node until there is none.
+     */
+    private void process(Node node) {
+        while (true) {
+            BitSet delta;
+            synchronized (lockOf(node)) {
+                delta = (BitSet) node.pending.clone();
+                delta.andNot(node.pts);
+                node.pts.or(delta);
+                node.pending.clear();
+                if (delta.isEmpty()) {
+                    node.scheduled = false;
+                    return;
+                }
+            }
+            for (Node succ : node.succs) {
+                addEntry(succ, delta);
+            }
+            if (node.pointer instanceof VarPtr varPtr) {
+                processVar(varPtr.getVar(), delta);
+            }
+        }
+    }
+
+    private void processVar(Var var, BitSet delta) {
+        for (int id = delta.nextSetBit(0); id >= 0; id = delta.nextSetBit(id + 1)) {
+            Obj obj = getObj(id);
+            for (LoadField load : var.getLoadFields()) { // y = x.f
+                addPFGEdge(getInstanceFieldNode(obj, resolveField(load.getFieldRef())),
+                        getVarNode(load.getLValue()));
+            }
+            for (StoreField store : var.getStoreFields()) { // x.f = y
+                addPFGEdge(getVarNode(store.getRValue()),
+                        getInstanceFieldNode(obj, resolveField(store.getFieldRef())));
+            }
+            for (LoadArray load : var.getLoadArrays()) { // y = x[i]
+                addPFGEdge(getArrayIndexNode(obj), getVarNode(load.getLValue()));
+            }
+            for (StoreArray store : var.getStoreArrays()) { // x[i] = y
+                addPFGEdge(getVarNode(store.getRValue()), getArrayIndexNode(obj));
+            }
+            processCall(var, obj, id);
+        }
+    }
+
+    /**
+     * Processes instance calls when points-to set of the receiver variable changes.
+     *
+     * @param var   the variable that holds receiver objects
+     * @param recv  a new discovered object pointed by the variable.
+     * @param recvId id of recv
+     */
+    private void processCall(Var var, Obj recv, int recvId) {
+        for (Invoke invoke : var.getInvokes()) {
+            if (invoke.isStatic()) {
+                continue;
+            }
+            JMethod callee = resolveCallee(recv, invoke);
+            if (callee == null) {
+                continue;
+            }
+            BitSet objs = new BitSet();
+            objs.set(recvId);
+            addEntry(getVarNode(getIR(callee).getThis()), objs);
+            addCallEdge(new Edge<>(CallGraphs.getCallKind(invoke), invoke, callee));
+        }
+    }
+
+    /**
+     * Adds a call edge, and if it is new, makes the callee reachable
+     * and connects arguments and return values.
+     */
+    private void addCallEdge(Edge<Invoke, JMethod> edge) {
+        if (!callEdges.add(edge)) {
+            return;
+        }
+        Invoke invoke = edge.getCallSite();
+        JMethod callee = edge.getCallee();
+        submit(() -> addReachable(callee));
+        var invokeExp = invoke.getInvokeExp();
+        var ir = getIR(callee);
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            addPFGEdge(getVarNode(invokeExp.getArg(i)), getVarNode(ir.getParam(i)));
+        }
+        Var lvar = invoke.getResult();
+        if (lvar != null) {
+            for (Var ret : ir.getReturnVars()) {
+                addPFGEdge(getVarNode(ret), getVarNode(lvar));
+            }
+        }
+    }
+
+    /**
+     * {@link JMethod#getIR()} builds IR on the first call and is not
+     * thread-safe, and concurrent first calls may build different IRs
+     * with different {@link Var}s for the same method. Thus the first
+     * call on each method is serialized.
+     */
+    private IR getIR(JMethod method) {
+        IR ir = irs.get(method);
+        if (ir == null) {
+            synchronized (irs) {
+                ir = irs.computeIfAbsent(method, JMethod::getIR);
+            }
+        }
+        return ir;
+    }
+
+    /**
+     * Resolution caches of class hierarchy are not thread-safe,
+     * thus resolution is serialized.
+     */
+    private JField resolveField(FieldRef fieldRef) {
+        synchronized (World.get().getClassHierarchy()) {
+            return fieldRef.resolve();
+        }
+    }
+
+    private JMethod resolveCallee(Obj recv, Invoke callSite) {
+        synchronized (World.get().getClassHierarchy()) {
+            return CallGraphs.resolveCallee(
+                    recv != null ? recv.getType() : null, callSite);
+        }
+    }
+
+    /**
+     * Converts the concurrent graph into the structures of {@link Solver}.
+     */
+    CIPTAResult getResult() {
+        PointerFlowGraph pointerFlowGraph = new PointerFlowGraph();
+        List<Node> nodes = new ArrayList<>();
+        nodes.addAll(varNodes.values());
+        nodes.addAll(staticFieldNodes.values());
+        nodes.addAll(instanceFieldNodes.values());
+        nodes.addAll(arrayIndexNodes.values());
+        nodes.sort(Comparator.comparingInt(n -> n.id));
+        for (Node node : nodes) {
+            Pointer pointer = toPFGPointer(pointerFlowGraph, node.pointer);
+            PointsToSet pts = pointer.getPointsToSet();
+            BitSet ids;
+            synchronized (lockOf(node)) {
+                ids = node.pts;
+            }
+            ids.stream().forEach(id -> pts.addObject(getObj(id)));
+            for (Node succ : node.succs) {
+                pointerFlowGraph.addEdge(pointer,
+                        toPFGPointer(pointerFlowGraph, succ.pointer));
+            }
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(main);
+        reachableMethods.forEach(callGraph::addReachableMethod);
+        callEdges.forEach(callGraph::addEdge);
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+
+    private static Pointer toPFGPointer(PointerFlowGraph pfg, Pointer pointer) {
+        if (pointer instanceof VarPtr varPtr) {
+            return pfg.getVarPtr(varPtr.getVar());
+        } else if (pointer instanceof StaticField staticField) {
+            return pfg.getStaticField(staticField.getField());
+        } else if (pointer instanceof InstanceField instanceField) {
+            return pfg.getInstanceField(instanceField.getBase(),
+                    instanceField.getField());
+        } else {
+            return pfg.getArrayIndex(((ArrayIndex) pointer).getArray());
+        }
+    }
+}
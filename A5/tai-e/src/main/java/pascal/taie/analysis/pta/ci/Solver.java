@@ -46,6 +46,8 @@ class Solver {
 
     private final HeapModel heapModel;
 
+    private final String workListPolicy;
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -57,8 +59,9 @@ class Solver {
     private ClassHierarchy hierarchy;
 
 
-    Solver(HeapModel heapModel) {
+    Solver(HeapModel heapModel, String workListPolicy) {
         this.heapModel = heapModel;
+        this.workListPolicy = workListPolicy;
     }
 
     /**
@@ -73,8 +76,8 @@ class Solver {
      * Initializes pointer analysis.
      */
     private void initialize() {
-        workList = new WorkList();
         pointerFlowGraph = new PointerFlowGraph();
+        workList = WorkList.make(workListPolicy, pointerFlowGraph);
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
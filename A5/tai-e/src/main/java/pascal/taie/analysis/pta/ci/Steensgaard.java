@@ -0,0 +1,345 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unification-based (Steensgaard-style) pointer analysis.
+ * <p>
+ * Each node stands for a class of values, i.e., a set of objects.
+ * Variables and static fields are mapped to nodes, and every node has at
+ * most one content node, which models the values stored in the fields
+ * and array elements of its objects (the analysis is field-insensitive).
+ * Assignments unify nodes instead of adding subset constraints, so the
+ * whole program is processed in almost linear time. Virtual calls are
+ * resolved on the objects of the receiver's class until no new call edge
+ * is found.
+ * <p>
+ * The result is coarser than that of {@link Solver}, which makes it
+ * suitable as a cheap pre-analysis, e.g., for partitioning variables.
+ */
+public class Steensgaard {
+
+    /**
+     * ID of the {@link AliasClasses} stored in {@link World}
+     * by {@link CIPTA} when option {@code alias-pre-pass} is set.
+     */
+    public static final String ID = "steensgaard";
+
+    private final HeapModel heapModel;
+
+    private final UnionFind nodes = new UnionFind();
+
+    /**
+     * Content node of each representative node, -1 if absent.
+     */
+    private int[] contents = new int[64];
+
+    /**
+     * Objects of each representative node.
+     */
+    private final Map<Integer, Set<Obj>> objects = Maps.newMap();
+
+    private final Map<Var, Integer> varNodes = Maps.newMap();
+
+    private final Map<JField, Integer> staticFieldNodes = Maps.newMap();
+
+    private final Set<JMethod> reachableMethods = Sets.newSet();
+
+    private final Deque<JMethod> methodQueue = new ArrayDeque<>();
+
+    private final List<Invoke> instanceInvokes = new ArrayList<>();
+
+    /**
+     * Receiver types that have been dispatched at each instance call site.
+     */
+    private final MultiMap<Invoke, Type> dispatchedTypes = Maps.newMultiMap();
+
+    private final Set<Pair<Invoke, JMethod>> callEdges = Sets.newSet();
+
+    private final Deque<Integer> joinQueue = new ArrayDeque<>();
+
+    private final StmtProcessor stmtProcessor = new StmtProcessor();
+
+    public Steensgaard(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * Runs the analysis from the main method.
+     */
+    public AliasClasses solve() {
+        addReachable(World.get().getMainMethod());
+        boolean changed;
+        do {
+            while (!methodQueue.isEmpty()) {
+                JMethod method = methodQueue.poll();
+                for (Stmt stmt : method.getIR().getStmts()) {
+                    stmt.accept(stmtProcessor);
+                }
+            }
+            changed = false;
+            // instanceInvokes may grow while new call edges are added
+            for (int i = 0; i < instanceInvokes.size(); ++i) {
+                changed |= dispatch(instanceInvokes.get(i));
+            }
+        } while (changed || !methodQueue.isEmpty());
+        return makeResult();
+    }
+
+    private void addReachable(JMethod method) {
+        if (reachableMethods.add(method)) {
+            methodQueue.add(method);
+        }
+    }
+
+    private class StmtProcessor implements StmtVisitor<Void> {
+
+        @Override
+        public Void visit(New stmt) { // x = new T
+            int node = nodes.find(getVarNode(stmt.getLValue()));
+            objects.computeIfAbsent(node, n -> Sets.newHybridSet())
+                    .add(heapModel.getObj(stmt));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) { // x = y
+            join(getVarNode(stmt.getLValue()), getVarNode(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) { // y = T.f | y = x.f
+            int target = getVarNode(stmt.getLValue());
+            if (stmt.isStatic()) {
+                join(target, getStaticFieldNode(stmt.getFieldRef().resolve()));
+            } else {
+                Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                join(target, getContentNode(getVarNode(base)));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) { // T.f = y | x.f = y
+            int source = getVarNode(stmt.getRValue());
+            if (stmt.isStatic()) {
+                join(getStaticFieldNode(stmt.getFieldRef().resolve()), source);
+            } else {
+                Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                join(getContentNode(getVarNode(base)), source);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) { // y = x[i]
+            Var base = stmt.getArrayAccess().getBase();
+            join(getVarNode(stmt.getLValue()), getContentNode(getVarNode(base)));
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreArray stmt) { // x[i] = y
+            Var base = stmt.getArrayAccess().getBase();
+            join(getContentNode(getVarNode(base)), getVarNode(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = CallGraphs.resolveCallee(null, stmt);
+                if (callee != null) {
+                    addCallEdge(stmt, callee);
+                }
+            } else {
+                instanceInvokes.add(stmt);
+                dispatch(stmt);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the callees of an instance call site on the objects
+     * of its receiver's node.
+     *
+     * @return true if any new call edge is added.
+     */
+    private boolean dispatch(Invoke invoke) {
+        Var base = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+        Set<Obj> recvObjs = objects.get(nodes.find(getVarNode(base)));
+        if (recvObjs == null) {
+            return false;
+        }
+        boolean changed = false;
+        // adding call edges may merge nodes and change recvObjs
+        for (Obj recv : List.copyOf(recvObjs)) {
+            if (dispatchedTypes.put(invoke, recv.getType())) {
+                JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+                if (callee != null) {
+                    changed |= addCallEdge(invoke, callee);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean addCallEdge(Invoke invoke, JMethod callee) {
+        if (!callEdges.add(new Pair<>(invoke, callee))) {
+            return false;
+        }
+        addReachable(callee);
+        var ir = callee.getIR();
+        var invokeExp = invoke.getInvokeExp();
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            join(getVarNode(ir.getParam(i)), getVarNode(invokeExp.getArg(i)));
+        }
+        if (invokeExp instanceof InvokeInstanceExp instanceExp) {
+            join(getVarNode(ir.getThis()), getVarNode(instanceExp.getBase()));
+        }
+        Var result = invoke.getResult();
+        if (result != null) {
+            for (Var ret : ir.getReturnVars()) {
+                join(getVarNode(result), getVarNode(ret));
+            }
+        }
+        return true;
+    }
+
+    private int newNode() {
+        int node = nodes.add();
+        if (node == contents.length) {
+            int oldLength = contents.length;
+            contents = Arrays.copyOf(contents, oldLength * 2);
+            Arrays.fill(contents, oldLength, contents.length, -1);
+        }
+        contents[node] = -1;
+        return node;
+    }
+
+    private int getVarNode(Var var) {
+        return varNodes.computeIfAbsent(var, v -> newNode());
+    }
+
+    private int getStaticFieldNode(JField field) {
+        return staticFieldNodes.computeIfAbsent(field, f -> newNode());
+    }
+
+    private int getContentNode(int node) {
+        int root = nodes.find(node);
+        if (contents[root] == -1) {
+            // newNode() may grow contents, so assign after it returns
+            int content = newNode();
+            contents[root] = content;
+        }
+        return contents[root];
+    }
+
+    /**
+     * Unifies two nodes, and recursively their content nodes.
+     */
+    private void join(int node1, int node2) {
+        joinQueue.add(node1);
+        joinQueue.add(node2);
+        while (!joinQueue.isEmpty()) {
+            int r1 = nodes.find(joinQueue.poll());
+            int r2 = nodes.find(joinQueue.poll());
+            if (r1 == r2) {
+                continue;
+            }
+            int c1 = contents[r1];
+            int c2 = contents[r2];
+            int root = nodes.union(r1, r2);
+            int other = root == r1 ? r2 : r1;
+            Set<Obj> otherObjs = objects.remove(other);
+            if (otherObjs != null) {
+                Set<Obj> rootObjs = objects.get(root);
+                if (rootObjs == null) {
+                    objects.put(root, otherObjs);
+                } else if (rootObjs.size() < otherObjs.size()) {
+                    otherObjs.addAll(rootObjs);
+                    objects.put(root, otherObjs);
+                } else {
+                    rootObjs.addAll(otherObjs);
+                }
+            }
+            contents[root] = c1 != -1 ? c1 : c2;
+            if (c1 != -1 && c2 != -1) {
+                joinQueue.add(c1);
+                joinQueue.add(c2);
+            }
+        }
+    }
+
+    private AliasClasses makeResult() {
+        Map<Integer, Integer> classIds = Maps.newMap();
+        Map<Var, Integer> varClasses = Maps.newMap(varNodes.size());
+        List<Set<Obj>> classObjects = new ArrayList<>();
+        varNodes.forEach((var, node) -> {
+            int root = nodes.find(node);
+            Integer classId = classIds.get(root);
+            if (classId == null) {
+                classId = classObjects.size();
+                classIds.put(root, classId);
+                classObjects.add(objects.getOrDefault(root, Set.of()));
+            }
+            varClasses.put(var, classId);
+        });
+        return new AliasClasses(varClasses, classObjects, reachableMethods);
+    }
+}
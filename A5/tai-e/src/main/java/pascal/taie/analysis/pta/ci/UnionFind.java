@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint sets of int elements, with union by rank and path compression.
+ * Elements are allocated densely from 0 by {@link #add()}.
+ */
+class UnionFind {
+
+    private int[] parent = new int[64];
+
+    private byte[] rank = new byte[64];
+
+    private int size = 0;
+
+    /**
+     * Adds a new singleton set.
+     *
+     * @return the element of the new set.
+     */
+    int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            rank = Arrays.copyOf(rank, size * 2);
+        }
+        parent[size] = size;
+        return size++;
+    }
+
+    /**
+     * @return number of elements added so far.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the representative of the set containing given element.
+     */
+    int find(int e) {
+        int root = e;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // path compression
+        while (parent[e] != root) {
+            int next = parent[e];
+            parent[e] = root;
+            e = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets containing given two elements.
+     *
+     * @return the representative of the merged set.
+     */
+    int union(int e1, int e2) {
+        int r1 = find(e1);
+        int r2 = find(e2);
+        if (r1 == r2) {
+            return r1;
+        }
+        if (rank[r1] < rank[r2]) {
+            parent[r1] = r2;
+            return r2;
+        }
+        parent[r2] = r1;
+        if (rank[r1] == rank[r2]) {
+            ++rank[r1];
+        }
+        return r1;
+    }
+}
@@ -20,44 +20,317 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
+
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
 import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
- * Represents work list in pointer analysis.
+ * Represents work list in pointer analysis. The order in which entries
+ * are processed is decided by the policy given by option {@code work-list}:
+ * <ul>
+ *     <li>{@code fifo} (the default): first in, first out.</li>
+ *     <li>{@code lifo}: last in, first out.</li>
+ *     <li>{@code topo}: pointers earlier in the topological order of
+ *     the PFG first; entries of the same pointer are merged.</li>
+ *     <li>{@code sharded}: entries are sharded by pointer over
+ *     per-worker deques, with work stealing.</li>
+ * </ul>
+ * Work lists are used by {@link Solver} only, as {@link ParallelSolver}
+ * has no global processing order.
  */
-class WorkList {
+abstract class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * @return a work list of given policy, or of FIFO policy
+     * if policy is null.
+     */
+    static WorkList make(String policy, PointerFlowGraph pointerFlowGraph) {
+        return switch (policy == null ? "fifo" : policy) {
+            case "fifo" -> new FIFOWorkList();
+            case "lifo" -> new LIFOWorkList();
+            case "topo" -> new TopologicalWorkList(pointerFlowGraph);
+            case "sharded" -> new ShardedWorkList(ShardedWorkList.SHARDS);
+            default -> throw new ConfigException(
+                    "Unknown work-list policy: " + policy);
+        };
+    }
 
     /**
      * Adds an entry to the work list.
      */
-    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
-    }
+    abstract void addEntry(Pointer pointer, PointsToSet pointsToSet);
 
     /**
      * Retrieves and removes an entry from this queue, or returns null
      * if this work list is empty.
      */
-    Entry pollEntry() {
-        return entries.poll();
-    }
+    abstract Entry pollEntry();
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return size() == 0;
     }
 
+    /**
+     * @return the number of entries in the work list.
+     */
+    abstract int size();
+
     /**
      * Represents entries in the work list.
      * Each entry consists of a pointer and a points-to set.
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
+
+    private static class FIFOWorkList extends WorkList {
+
+        private final Deque<Entry> entries = new ArrayDeque<>();
+
+        @Override
+        void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            entries.addLast(new Entry(pointer, pointsToSet));
+        }
+
+        @Override
+        Entry pollEntry() {
+            return entries.pollFirst();
+        }
+
+        @Override
+        int size() {
+            return entries.size();
+        }
+    }
+
+    private static class LIFOWorkList extends WorkList {
+
+        private final Deque<Entry> entries = new ArrayDeque<>();
+
+        @Override
+        void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            entries.addLast(new Entry(pointer, pointsToSet));
+        }
+
+        @Override
+        Entry pollEntry() {
+            return entries.pollLast();
+        }
+
+        @Override
+        int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Processes pointers in topological order of the PFG (cycles are
+     * broken arbitrarily), so that a pointer usually receives the objects
+     * from all its predecessors before it propagates them further.
+     * As the PFG grows during solving, the order is recomputed once
+     * the number of polls since the last computation exceeds the
+     * number of ranked pointers, which keeps the amortized cost of
+     * ranking linear in the number of polls.
+     */
+    private static class TopologicalWorkList extends WorkList {
+
+        /**
+         * Lower bound of the number of polls between two rankings.
+         */
+        private static final int MIN_RANKING_INTERVAL = 1024;
+
+        private final PointerFlowGraph pointerFlowGraph;
+
+        /**
+         * Pending points-to set of each pointer in the queue.
+         */
+        private final Map<Pointer, PointsToSet> pending = Maps.newMap();
+
+        /**
+         * Pointers whose pending points-to set is created by this work list,
+         * and thus can be modified in place.
+         */
+        private final Set<Pointer> merged = Sets.newSet();
+
+        private final PriorityQueue<Pointer> queue =
+                new PriorityQueue<>(Comparator.comparingInt(this::getRank));
+
+        private Map<Pointer, Integer> ranks = Map.of();
+
+        private int polls = 0;
+
+        private TopologicalWorkList(PointerFlowGraph pointerFlowGraph) {
+            this.pointerFlowGraph = pointerFlowGraph;
+        }
+
+        @Override
+        void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            PointsToSet pts = pending.get(pointer);
+            if (pts == null) {
+                pending.put(pointer, pointsToSet);
+                queue.add(pointer);
+            } else {
+                if (merged.add(pointer)) {
+                    PointsToSet copy = new PointsToSet();
+                    pts.forEach(copy::addObject);
+                    pending.put(pointer, copy);
+                    pts = copy;
+                }
+                pointsToSet.forEach(pts::addObject);
+            }
+        }
+
+        @Override
+        Entry pollEntry() {
+            if (++polls > Math.max(ranks.size(), MIN_RANKING_INTERVAL)) {
+                rank();
+            }
+            Pointer pointer = queue.poll();
+            if (pointer == null) {
+                return null;
+            }
+            merged.remove(pointer);
+            return new Entry(pointer, pending.remove(pointer));
+        }
+
+        @Override
+        int size() {
+            return queue.size();
+        }
+
+        private int getRank(Pointer pointer) {
+            return ranks.getOrDefault(pointer, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Ranks pointers by reverse post-order of the PFG,
+         * and re-orders the queue by the new ranks.
+         */
+        private void rank() {
+            List<Pointer> postOrder = new ArrayList<>();
+            Set<Pointer> visited = Sets.newSet();
+            Deque<Frame> stack = new ArrayDeque<>();
+            for (Pointer root : pointerFlowGraph.getPointers()) {
+                if (!visited.add(root)) {
+                    continue;
+                }
+                stack.push(new Frame(root, pointerFlowGraph.getSuccsOf(root).iterator()));
+                while (!stack.isEmpty()) {
+                    Frame top = stack.peek();
+                    if (top.succs().hasNext()) {
+                        Pointer succ = top.succs().next();
+                        if (visited.add(succ)) {
+                            stack.push(new Frame(succ,
+                                    pointerFlowGraph.getSuccsOf(succ).iterator()));
+                        }
+                    } else {
+                        stack.pop();
+                        postOrder.add(top.pointer());
+                    }
+                }
+            }
+            Map<Pointer, Integer> newRanks = Maps.newMap(postOrder.size());
+            for (int i = 0; i < postOrder.size(); ++i) {
+                newRanks.put(postOrder.get(i), postOrder.size() - 1 - i);
+            }
+            List<Pointer> queued = new ArrayList<>(queue);
+            queue.clear();
+            ranks = newRanks;
+            queue.addAll(queued);
+            polls = 0;
+        }
+
+        private record Frame(Pointer pointer, Iterator<Pointer> succs) {
+        }
+    }
+
+    /**
+     * Shards entries by pointer over one deque per worker, so that
+     * entries of the same pointer stay in the same deque. A worker
+     * takes entries from the head of its own deque, and when the deque
+     * is empty, steals from the tail of the fullest other deque.
+     * The sequential solver acts as the single worker that moves to
+     * the deque it steals from.
+     * <p>
+     * Pointers are assigned to deques round-robin in the order in which
+     * they are first added, instead of by hash codes, which are derived
+     * from identities for most pointers and thus vary from run to run.
+     * For the same reason, the number of deques is fixed instead of
+     * depending on the number of processors.
+     */
+    private static class ShardedWorkList extends WorkList {
+
+        private static final int SHARDS = 8;
+
+        private final Deque<Entry>[] shards;
+
+        /**
+         * Index of the deque assigned to each pointer.
+         */
+        private final Map<Pointer, Integer> shardOf = Maps.newMap();
+
+        /**
+         * Index of the deque of the current worker.
+         */
+        private int current = 0;
+
+        private int size = 0;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private ShardedWorkList(int shardCount) {
+            shards = new Deque[shardCount];
+            for (int i = 0; i < shardCount; ++i) {
+                shards[i] = new ArrayDeque<>();
+            }
+        }
+
+        @Override
+        void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            int shard = shardOf.computeIfAbsent(pointer,
+                    unused -> shardOf.size() % shards.length);
+            shards[shard].addLast(new Entry(pointer, pointsToSet));
+            ++size;
+        }
+
+        @Override
+        Entry pollEntry() {
+            Entry entry = shards[current].pollFirst();
+            if (entry == null) {
+                int victim = -1;
+                for (int i = 0; i < shards.length; ++i) {
+                    if (!shards[i].isEmpty() && (victim == -1
+                            || shards[i].size() > shards[victim].size())) {
+                        victim = i;
+                    }
+                }
+                if (victim == -1) {
+                    return null;
+                }
+                entry = shards[victim].pollLast();
+                current = victim;
+            }
+            --size;
+            return entry;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+    }
 }
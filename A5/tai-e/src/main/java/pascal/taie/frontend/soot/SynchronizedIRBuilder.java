@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.frontend.soot;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * IR builder which builds the IR of each method at most once, and is
+ * safe to call concurrently. It builds IR only when asked; it does not
+ * make any other part of world building lazy.
+ * <p>
+ * Soot is not thread-safe, so IR construction is serialized. Built IRs
+ * are cached, so that concurrent first calls of {@link JMethod#getIR()}
+ * on the same method obtain the same IR, and thus the same {@code Var}s.
+ */
+class SynchronizedIRBuilder implements IRBuilder {
+
+    private final IRBuilder builder;
+
+    private final Map<JMethod, IR> cache = Maps.newConcurrentMap();
+
+    SynchronizedIRBuilder(IRBuilder builder) {
+        this.builder = builder;
+    }
+
+    @Override
+    public IR buildIR(JMethod method) {
+        IR ir = cache.get(method);
+        if (ir == null) {
+            synchronized (this) {
+                ir = cache.get(method);
+                if (ir == null) {
+                    ir = builder.buildIR(method);
+                    cache.put(method, ir);
+                }
+            }
+        }
+        return ir;
+    }
+
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+        builder.buildAll(hierarchy);
+    }
+}
@@ -23,59 +23,86 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
+/**
+ * Runs each test case with the sequential solver under each work-list
+ * policy, and with the parallel solver, which must all produce the same
+ * results.
+ */
+@RunWith(Parameterized.class)
 public class CIPTATest {
 
     static final String DIR = "cipta";
 
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> solverOptions() {
+        return List.of(
+                "threads:1;work-list:fifo",
+                "threads:1;work-list:lifo",
+                "threads:1;work-list:topo",
+                "threads:1;work-list:sharded",
+                "threads:4");
+    }
+
+    @Parameterized.Parameter
+    public String solverOptions;
+
+    private void test(String main) {
+        Tests.testCIPTA(DIR, main, solverOptions);
+    }
+
     @Test
     public void testExample() {
-        Tests.testCIPTA(DIR, "Example");
+        test("Example");
     }
 
     @Test
     public void testArray() {
-        Tests.testCIPTA(DIR, "Array");
+        test("Array");
     }
 
     @Test
     public void testAssign() {
-        Tests.testCIPTA(DIR, "Assign");
+        test("Assign");
     }
 
     @Test
     public void testAssign2() {
-        Tests.testCIPTA(DIR, "Assign2");
+        test("Assign2");
     }
 
     @Test
     public void testStoreLoad() {
-        Tests.testCIPTA(DIR, "StoreLoad");
+        test("StoreLoad");
     }
 
     @Test
     public void testCall() {
-        Tests.testCIPTA(DIR, "Call");
+        test("Call");
     }
 
     @Test
     public void testInstanceField() {
-        Tests.testCIPTA(DIR, "InstanceField");
+        test("InstanceField");
     }
 
     @Test
     public void testStaticField() {
-        Tests.testCIPTA(DIR, "StaticField");
+        test("StaticField");
     }
 
     @Test
     public void testStaticCall() {
-        Tests.testCIPTA(DIR, "StaticCall");
+        test("StaticCall");
     }
 
     @Test
     public void testMergeParam() {
-        Tests.testCIPTA(DIR, "MergeParam");
+        test("MergeParam");
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that the alias classes of {@link Steensgaard} over-approximate
+ * the points-to sets of {@link Solver} on the test cases of CIPTA.
+ */
+@RunWith(Parameterized.class)
+public class SteensgaardTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> mains() {
+        return List.of("Example", "Array", "Assign", "Assign2", "StoreLoad",
+                "Call", "InstanceField", "StaticField", "StaticCall",
+                "MergeParam");
+    }
+
+    @Parameterized.Parameter
+    public String main;
+
+    @Test
+    public void testAliasClasses() {
+        Tests.testCIPTA("cipta", main, "alias-pre-pass:true");
+        PointerAnalysisResult pta = World.get().getResult(CIPTA.ID);
+        AliasClasses aliasClasses = World.get().getResult(Steensgaard.ID);
+        Assert.assertNotNull("Alias classes are not stored", aliasClasses);
+        Map<Obj, Integer> objClasses = Maps.newMap();
+        for (Var var : pta.getVars()) {
+            Set<Obj> pts = pta.getPointsToSet(var);
+            if (pts.isEmpty()) {
+                continue;
+            }
+            int c = aliasClasses.getClassOf(var);
+            Assert.assertNotEquals(var + " is not in any class", -1, c);
+            Assert.assertTrue(aliasClasses.getVars(c).contains(var));
+            Assert.assertTrue(var + " points to objects out of its class",
+                    aliasClasses.getObjects(c).containsAll(pts));
+            for (Obj obj : pts) {
+                // variables which may point to the same object
+                // must be in the same class
+                Integer prev = objClasses.putIfAbsent(obj, c);
+                Assert.assertTrue(obj + " is in multiple classes",
+                        prev == null || prev == c);
+            }
+        }
+        for (Var v1 : pta.getVars()) {
+            for (Var v2 : pta.getVars()) {
+                if (pta.getPointsToSet(v1).stream()
+                        .anyMatch(pta.getPointsToSet(v2)::contains)) {
+                    Assert.assertTrue(v1 + " and " + v2 + " may alias",
+                            aliasClasses.mayAlias(v1, v2));
+                }
+            }
+        }
+        pta.getCallGraph().reachableMethods().forEach(m ->
+                Assert.assertTrue(m + " is not reachable in alias classes",
+                        aliasClasses.getReachableMethods().contains(m)));
+    }
+}
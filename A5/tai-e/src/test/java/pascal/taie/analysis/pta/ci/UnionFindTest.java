@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnionFindTest {
+
+    @Test
+    public void testAdd() {
+        UnionFind uf = new UnionFind();
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(i, uf.add());
+            Assert.assertEquals(i, uf.find(i));
+        }
+        Assert.assertEquals(100, uf.size());
+    }
+
+    @Test
+    public void testUnion() {
+        UnionFind uf = new UnionFind();
+        for (int i = 0; i < 10; ++i) {
+            uf.add();
+        }
+        // {0, 2, 4, 6, 8} and {1, 3, 5, 7, 9}
+        for (int i = 2; i < 10; ++i) {
+            uf.union(i - 2, i);
+        }
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(uf.find(i % 2), uf.find(i));
+        }
+        Assert.assertNotEquals(uf.find(0), uf.find(1));
+        int root = uf.union(3, 4);
+        Assert.assertEquals(root, uf.union(3, 4));
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(root, uf.find(i));
+        }
+    }
+
+    @Test
+    public void testLongChain() {
+        UnionFind uf = new UnionFind();
+        int n = 10_000;
+        for (int i = 0; i < n; ++i) {
+            uf.add();
+        }
+        for (int i = 1; i < n; ++i) {
+            uf.union(uf.find(i - 1), i);
+        }
+        int root = uf.find(0);
+        for (int i = 0; i < n; ++i) {
+            Assert.assertEquals(root, uf.find(i));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -25,6 +26,14 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    // report allocation rate along with throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgs.add("-Xmx4G")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
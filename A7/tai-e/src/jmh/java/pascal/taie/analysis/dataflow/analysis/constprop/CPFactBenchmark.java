@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link CPFact} operations performed at each node
+ * by the data-flow solvers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CPFactBenchmark {
+
+    /**
+     * Number of variables in the facts.
+     */
+    @Param({"8", "64", "512"})
+    int size;
+
+    ConstantPropagation cp;
+
+    /**
+     * Two facts over the same variables, which agree on half of
+     * the variables and disagree on the others.
+     */
+    CPFact fact1, fact2;
+
+    @Setup
+    public void setup() {
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        fact1 = new CPFact();
+        fact2 = new CPFact();
+        for (int i = 0; i < size; ++i) {
+            Var var = new Var(null, "v" + i, PrimitiveType.INT, i);
+            fact1.update(var, Value.makeConstant(i));
+            fact2.update(var, Value.makeConstant(i % 2 == 0 ? i : -i));
+        }
+    }
+
+    @Benchmark
+    public CPFact copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public CPFact meetInto() {
+        CPFact target = fact1.copy();
+        cp.meetInto(fact2, target);
+        return target;
+    }
+
+    @Benchmark
+    public boolean copyFrom() {
+        CPFact target = new CPFact();
+        return target.copyFrom(fact2);
+    }
+}
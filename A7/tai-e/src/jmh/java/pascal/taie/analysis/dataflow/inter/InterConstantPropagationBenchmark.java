@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures alias-aware {@link InterConstantPropagation}. The world,
+ * the pointer analysis result and the ICFG are built once per trial
+ * by running the analysis through {@link Main}, so that only the
+ * data-flow solving is measured.
+ * <p>
+ * Larger programs can be measured by overriding the parameters,
+ * e.g., {@code -p classPath=<dir> -p main=<class>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InterConstantPropagationBenchmark {
+
+    @Param({"src/test/resources/dataflow/constprop/alias"})
+    String classPath;
+
+    @Param({"ObjSens", "ArrayLoops", "MultiStores"})
+    String main;
+
+    @Param({"ci", "2-obj"})
+    String cs;
+
+    AnalysisConfig config;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", main,
+                "-a", CSPTA.ID + "=cs:" + cs,
+                "-a", CallGraphBuilder.ID + "=algorithm:" + CSPTA.ID,
+                "-a", InterConstantPropagation.ID
+                        + "=edge-refine:false;alias-aware:true;pta:" + CSPTA.ID
+        });
+        config = new AnalysisConfig(InterConstantPropagation.ID,
+                "pta", CSPTA.ID,
+                "edge-refine", false,
+                "alias-aware", true);
+    }
+
+    @Benchmark
+    public Object analyze() {
+        return new InterConstantPropagation(config).analyze();
+    }
+}
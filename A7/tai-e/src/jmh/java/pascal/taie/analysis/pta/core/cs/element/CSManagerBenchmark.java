@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.NullType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures context creation and the look-ups of context-sensitive
+ * elements, which the solvers perform for every statement and object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSManagerBenchmark {
+
+    /**
+     * Number of variables, objects and contexts.
+     */
+    @Param({"64", "4096"})
+    int size;
+
+    CSManager csManager;
+
+    Var[] vars;
+
+    Obj[] objs;
+
+    Context[] contexts;
+
+    int next;
+
+    @Setup
+    public void setup() {
+        csManager = new MapBasedCSManager();
+        vars = new Var[size];
+        objs = new Obj[size];
+        contexts = new Context[size];
+        for (int i = 0; i < size; ++i) {
+            vars[i] = new Var(null, "v" + i, NullType.NULL, i);
+            objs[i] = new MockObj("Bench", i, NullType.NULL);
+        }
+        for (int i = 0; i < size; ++i) {
+            contexts[i] = ListContext.make(objs[i], objs[(i + 1) % size]);
+            // populate the manager so that look-ups hit existing elements
+            csManager.getCSVar(contexts[i], vars[i]);
+            csManager.getCSObj(contexts[i], objs[i]);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    /**
+     * Creates a 2-element context like the 2-object selector does.
+     */
+    @Benchmark
+    public Context makeListContext() {
+        int i = nextIndex();
+        return ListContext.make(objs[i], objs[size - 1 - i]);
+    }
+
+    @Benchmark
+    public CSVar getCSVar() {
+        int i = nextIndex();
+        return csManager.getCSVar(contexts[i], vars[i]);
+    }
+
+    @Benchmark
+    public CSObj getCSObj() {
+        int i = nextIndex();
+        return csManager.getCSObj(contexts[i], objs[i]);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.language.type.NullType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the points-to set operations on the propagation path
+ * of the pointer analysis solvers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsToSetBenchmark {
+
+    /**
+     * Size of the points-to sets.
+     */
+    @Param({"4", "64", "1024"})
+    int size;
+
+    /**
+     * Two sets of given size, half of whose objects are shared.
+     */
+    PointsToSet pts1, pts2;
+
+    @Setup
+    public void setup() {
+        MapBasedCSManager csManager = new MapBasedCSManager();
+        CSObj[] objs = new CSObj[size * 3 / 2];
+        for (int i = 0; i < objs.length; ++i) {
+            objs[i] = csManager.getCSObj(ListContext.make(),
+                    new MockObj("Bench", i, NullType.NULL));
+        }
+        pts1 = PointsToSetFactory.make();
+        pts2 = PointsToSetFactory.make();
+        for (int i = 0; i < size; ++i) {
+            pts1.addObject(objs[i]);
+            pts2.addObject(objs[i + size / 2]);
+        }
+    }
+
+    @Benchmark
+    public PointsToSet addAll() {
+        PointsToSet result = PointsToSetFactory.make();
+        result.addAll(pts1);
+        result.addAll(pts2);
+        return result;
+    }
+
+    /**
+     * Computes the difference set like {@code Solver.propagate()}.
+     */
+    @Benchmark
+    public PointsToSet diff() {
+        PointsToSet target = PointsToSetFactory.make();
+        target.addAll(pts1);
+        PointsToSet delta = PointsToSetFactory.make();
+        for (CSObj obj : pts2) {
+            if (target.addObject(obj)) {
+                delta.addObject(obj);
+            }
+        }
+        return delta;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        boolean result = false;
+        for (CSObj obj : pts2) {
+            result ^= pts1.contains(obj);
+        }
+        return result;
+    }
+}
@@ -32,7 +32,6 @@ import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -200,21 +199,12 @@ public class InterConstantPropagation extends
         return cp.transferNode(stmt, in, out);
     }
 
-    boolean isOverlap(Set<Obj> set1, Set<Obj> set2) {
-        for (Obj obj1 : set1) {
-            if (set2.contains(obj1))
-                return true;
-        }
-        return false;
-    }
-
-
     boolean isInstanceFieldAlias(InstanceFieldAccess first, InstanceFieldAccess second) {
         var base_1 = first.getBase();
         var base_2 = second.getBase();
         var field_1 = first.getFieldRef();
         var field_2 = second.getFieldRef();
-        return isOverlap(pta.getPointsToSet(base_1), pta.getPointsToSet(base_2))
+        return pta.mayAlias(base_1, base_2)
                 && field_1.equals(field_2);
     }
 
@@ -230,7 +220,7 @@ public class InterConstantPropagation extends
             index_2 = arrayIndex.get(other.getIndex());
         if(index_2==null)
             return false;
-        if (isOverlap(pta.getPointsToSet(base_1), pta.getPointsToSet(base_2))) {
+        if (pta.mayAlias(base_1, base_2)) {
             if (index_1 == Value.getUndef() || index_2 ==Value.getUndef() ) {
                 return false;
             } else {
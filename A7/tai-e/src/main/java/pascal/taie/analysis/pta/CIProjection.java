@@ -0,0 +1,355 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Context-insensitive projection of a (context-sensitive) pointer analysis
+ * result. Each abstract object is assigned a dense id, and the points-to
+ * set of each variable, static field, instance field and array is stored
+ * as a sorted, duplicate-free array of object ids, so that queries do not
+ * need to merge the points-to sets of all contexts again.
+ * <p>
+ * Context-sensitive objects are assigned dense ids as well, and the
+ * points-to sets of instance fields and arrays are keyed by them, so that
+ * base.f covers only the fields of the context-sensitive objects actually
+ * pointed to by base, as in the context-sensitive result.
+ */
+public final class CIProjection {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Obj[] objects;
+
+    private final Map<Obj, Integer> objIds;
+
+    private final Map<CSObj, Integer> csObjIds;
+
+    /**
+     * Object ids pointed to by each variable.
+     */
+    private final Map<Var, int[]> varPts;
+
+    /**
+     * Context-sensitive object ids pointed to by each variable,
+     * in any context.
+     */
+    private final Map<Var, int[]> varCSPts;
+
+    /**
+     * Object ids pointed to by each static field.
+     */
+    private final Map<JField, int[]> staticFieldPts;
+
+    /**
+     * Object ids pointed to by each instance field, keyed by
+     * (context-sensitive id of base object, field).
+     */
+    private final Map<Pair<Integer, JField>, int[]> instanceFieldPts;
+
+    /**
+     * Object ids pointed to by the elements of each array object,
+     * keyed by context-sensitive ids of the array objects.
+     */
+    private final Map<Integer, int[]> arrayPts;
+
+    /**
+     * Cache for {@link #getObjectIds(Var, JField)}.
+     */
+    private final Map<Pair<Var, JField>, int[]> varFieldPts
+            = Maps.newConcurrentMap();
+
+    private CIProjection(CSManager csManager) {
+        objects = csManager.getObjects()
+                .stream()
+                .map(CSObj::getObject)
+                .distinct()
+                .toArray(Obj[]::new);
+        objIds = Maps.newMap(objects.length);
+        for (int i = 0; i < objects.length; ++i) {
+            objIds.put(objects[i], i);
+        }
+        Collection<CSObj> csObjs = csManager.getObjects();
+        csObjIds = Maps.newMap(csObjs.size());
+        for (CSObj csObj : csObjs) {
+            csObjIds.put(csObj, csObjIds.size());
+        }
+        // the sets are projected independently, thus in parallel
+        varPts = project(csManager.getVars(), var -> toIds(
+                csManager.getCSVarsOf(var)
+                        .stream()
+                        .map(CSVar::getPointsToSet)));
+        varCSPts = project(csManager.getVars(), var -> toCSIds(
+                csManager.getCSVarsOf(var)
+                        .stream()
+                        .map(CSVar::getPointsToSet)));
+        staticFieldPts = project(csManager.getStaticFields(),
+                StaticField::getField,
+                sfield -> toIds(Stream.of(sfield.getPointsToSet())));
+        instanceFieldPts = project(csManager.getInstanceFields(),
+                ifield -> new Pair<>(csObjIds.get(ifield.getBase()),
+                        ifield.getField()),
+                ifield -> toIds(Stream.of(ifield.getPointsToSet())));
+        arrayPts = project(csManager.getArrayIndexes(),
+                arrayIndex -> csObjIds.get(arrayIndex.getArray()),
+                arrayIndex -> toIds(Stream.of(arrayIndex.getPointsToSet())));
+    }
+
+    /**
+     * Builds the projection of the pointer analysis result held by
+     * given CS manager.
+     */
+    public static CIProjection build(CSManager csManager) {
+        return new CIProjection(csManager);
+    }
+
+    private static <K> Map<K, int[]> project(
+            Collection<K> keys, Function<K, int[]> toIds) {
+        return project(keys, Function.identity(), toIds);
+    }
+
+    /**
+     * Projects the points-to sets of given elements. Elements mapped to
+     * the same key (e.g., the same static field in different contexts)
+     * have their object ids merged.
+     */
+    private static <E, K> Map<K, int[]> project(
+            Collection<E> elems, Function<E, K> toKey, Function<E, int[]> toIds) {
+        return elems.parallelStream()
+                .collect(Collectors.toUnmodifiableMap(
+                        toKey, toIds, CIProjection::union));
+    }
+
+    private int[] toIds(Stream<PointsToSet> ptss) {
+        BitSet ids = new BitSet(objects.length);
+        ptss.forEach(pts -> pts.forEach(csObj ->
+                ids.set(getObjectId(csObj.getObject()))));
+        return ids.isEmpty() ? EMPTY : ids.stream().toArray();
+    }
+
+    private int[] toCSIds(Stream<PointsToSet> ptss) {
+        BitSet ids = new BitSet(csObjIds.size());
+        ptss.forEach(pts -> pts.forEach(csObj -> ids.set(csObjIds.get(csObj))));
+        return ids.isEmpty() ? EMPTY : ids.stream().toArray();
+    }
+
+    /**
+     * @return the union of two sorted id arrays.
+     */
+    private static int[] union(int[] ids1, int[] ids2) {
+        if (ids1.length == 0) {
+            return ids2;
+        }
+        if (ids2.length == 0) {
+            return ids1;
+        }
+        int[] result = new int[ids1.length + ids2.length];
+        int i = 0, j = 0, k = 0;
+        while (i < ids1.length && j < ids2.length) {
+            if (ids1[i] < ids2[j]) {
+                result[k++] = ids1[i++];
+            } else if (ids1[i] > ids2[j]) {
+                result[k++] = ids2[j++];
+            } else {
+                result[k++] = ids1[i++];
+                ++j;
+            }
+        }
+        while (i < ids1.length) {
+            result[k++] = ids1[i++];
+        }
+        while (j < ids2.length) {
+            result[k++] = ids2[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    /**
+     * @return true if two sorted id arrays share at least one id.
+     */
+    public static boolean intersects(int[] ids1, int[] ids2) {
+        int i = 0, j = 0;
+        while (i < ids1.length && j < ids2.length) {
+            if (ids1[i] < ids2[j]) {
+                ++i;
+            } else if (ids1[i] > ids2[j]) {
+                ++j;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of abstract objects in this projection.
+     */
+    public int getObjectCount() {
+        return objects.length;
+    }
+
+    /**
+     * @return the object of given id.
+     */
+    public Obj getObject(int id) {
+        return objects[id];
+    }
+
+    /**
+     * @return id of given object.
+     */
+    public int getObjectId(Obj obj) {
+        Integer id = objIds.get(obj);
+        if (id == null) {
+            throw new IllegalArgumentException(obj + " is not in this projection");
+        }
+        return id;
+    }
+
+    /**
+     * @return sorted ids of the objects pointed to by var.
+     * The returned array must not be modified.
+     */
+    public int[] getObjectIds(Var var) {
+        return varPts.getOrDefault(var, EMPTY);
+    }
+
+    /**
+     * @return sorted ids of the objects pointed to by base.field.
+     * The returned array must not be modified.
+     */
+    public int[] getObjectIds(Var base, JField field) {
+        return varFieldPts.computeIfAbsent(new Pair<>(base, field), p -> {
+            int[] result = EMPTY;
+            for (int baseId : varCSPts.getOrDefault(base, EMPTY)) {
+                result = union(result, instanceFieldPts.getOrDefault(
+                        new Pair<>(baseId, field), EMPTY));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @return sorted ids of the objects pointed to by given static field.
+     * The returned array must not be modified.
+     */
+    public int[] getObjectIds(JField field) {
+        return staticFieldPts.getOrDefault(field, EMPTY);
+    }
+
+    /**
+     * @return sorted ids of the objects pointed to by the elements
+     * of the arrays pointed to by base.
+     */
+    public int[] getArrayObjectIds(Var base) {
+        int[] result = EMPTY;
+        for (int baseId : varCSPts.getOrDefault(base, EMPTY)) {
+            result = union(result, arrayPts.getOrDefault(baseId, EMPTY));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the points-to sets of v1 and v2 overlap.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        return intersects(getObjectIds(v1), getObjectIds(v2));
+    }
+
+    /**
+     * @return an unmodifiable set view of the objects of given ids.
+     */
+    public Set<Obj> toObjects(int[] ids) {
+        return new ObjSet(ids);
+    }
+
+    /**
+     * Set of objects backed by a sorted id array.
+     */
+    private class ObjSet extends AbstractSet<Obj> {
+
+        private final int[] ids;
+
+        private ObjSet(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Obj obj) {
+                Integer id = objIds.get(obj);
+                return id != null && Arrays.binarySearch(ids, id) >= 0;
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<Obj> iterator() {
+            return new Iterator<>() {
+
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < ids.length;
+                }
+
+                @Override
+                public Obj next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return objects[ids[i++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
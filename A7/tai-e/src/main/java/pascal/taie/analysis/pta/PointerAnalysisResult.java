@@ -100,6 +100,25 @@ public interface PointerAnalysisResult extends ResultHolder {
      */
     Set<Obj> getPointsToSet(JField field);
 
+    /**
+     * @return true if the points-to sets of v1 and v2 overlap.
+     */
+    default boolean mayAlias(Var v1, Var v2) {
+        Set<Obj> pts1 = getPointsToSet(v1);
+        Set<Obj> pts2 = getPointsToSet(v2);
+        if (pts1.size() > pts2.size()) {
+            Set<Obj> tmp = pts1;
+            pts1 = pts2;
+            pts2 = tmp;
+        }
+        for (Obj obj : pts1) {
+            if (pts2.contains(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @return the resulting context-sensitive call graph.
      */
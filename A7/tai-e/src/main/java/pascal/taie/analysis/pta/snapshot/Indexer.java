@@ -0,0 +1,68 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense int ids to elements in the order they are first seen.
+ *
+ * @param <E> type of elements
+ */
+class Indexer<E> {
+
+    private final Map<E, Integer> ids = Maps.newMap();
+
+    private final List<E> elements = new ArrayList<>();
+
+    /**
+     * @return id of given element. If the element is absent in this
+     * indexer, it is added and assigned a new id.
+     */
+    int getId(E e) {
+        Integer id = ids.get(e);
+        if (id == null) {
+            id = elements.size();
+            ids.put(e, id);
+            elements.add(e);
+        }
+        return id;
+    }
+
+    /**
+     * @return all elements in this indexer, ordered by their ids.
+     */
+    List<E> getElements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    int size() {
+        return elements.size();
+    }
+}
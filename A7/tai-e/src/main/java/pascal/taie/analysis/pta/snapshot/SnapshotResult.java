@@ -0,0 +1,541 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Pointer analysis result backed by a (memory-mapped) snapshot.
+ * <p>
+ * Symbol tables are resolved against the current world when the snapshot
+ * is loaded. Context-insensitive queries, i.e., points-to sets of
+ * variables and fields, are answered directly from the snapshot buffer.
+ * Context-sensitive elements and the call graph are materialized
+ * on their first access.
+ */
+class SnapshotResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final ByteBuffer buffer;
+
+    private final HeapModel heapModel;
+
+    /**
+     * Current read position, only used during loading.
+     */
+    private int pos;
+
+    private JMethod[] methods;
+
+    private JField[] fields;
+
+    private Type[] types;
+
+    private Var[] vars;
+
+    private Invoke[] invokes;
+
+    private Obj[] objs;
+
+    private Context[] contexts;
+
+    /**
+     * Position of section of context-sensitive objects.
+     */
+    private int csObjPos;
+
+    private int numCSObjs;
+
+    private Section varPts;
+
+    /**
+     * Position of start rows of variables in {@link #varPts}.
+     */
+    private int varStartPos;
+
+    private Section staticFieldPts;
+
+    private Section instanceFieldPts;
+
+    private Section arrayPts;
+
+    private int csMethodPos;
+
+    private int numCSMethods;
+
+    private int entryPos;
+
+    private int numEntries;
+
+    private int callSitePos;
+
+    private final Map<Var, Integer> varIds = Maps.newMap();
+
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+    private final Map<Var, Set<Obj>> varPointsTo = Maps.newMap();
+
+    /**
+     * Result with materialized context-sensitive elements.
+     */
+    private PointerAnalysisResult csResult;
+
+    SnapshotResult(ByteBuffer buffer, HeapModel heapModel) {
+        this.buffer = buffer;
+        this.heapModel = heapModel;
+        load();
+    }
+
+    private void load() {
+        if (readInt() != Snapshots.MAGIC) {
+            throw new AnalysisException("Not a pointer analysis snapshot");
+        }
+        int version = readInt();
+        if (version != Snapshots.VERSION) {
+            throw new AnalysisException(
+                    "Unsupported snapshot version: " + version);
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        TypeSystem typeSystem = World.get().getTypeSystem();
+        methods = readTable(JMethod[]::new, () -> resolve(
+                hierarchy.getMethod(readString()), "method"));
+        fields = readTable(JField[]::new, () -> resolve(
+                hierarchy.getField(readString()), "field"));
+        types = readTable(Type[]::new, () -> resolve(
+                typeSystem.getType(readString()), "type"));
+        vars = readTable(Var[]::new, () -> {
+            IR ir = methods[readInt()].getIR();
+            return ir.getVar(readInt());
+        });
+        for (int i = 0; i < fields.length; ++i) {
+            fieldIds.put(fields[i], i);
+        }
+        for (int i = 0; i < vars.length; ++i) {
+            varIds.put(vars[i], i);
+        }
+        invokes = readTable(Invoke[]::new, () -> {
+            IR ir = methods[readInt()].getIR();
+            return (Invoke) ir.getStmt(readInt());
+        });
+        objs = readTable(Obj[]::new, () -> {
+            IR ir = methods[readInt()].getIR();
+            return heapModel.getObj((New) ir.getStmt(readInt()));
+        });
+        readContexts();
+        numCSObjs = readInt();
+        csObjPos = pos;
+        pos += numCSObjs * 2 * Integer.BYTES;
+        varPts = readSection(2);
+        varStartPos = pos;
+        pos += (vars.length + 1) * Integer.BYTES;
+        staticFieldPts = readSection(1);
+        instanceFieldPts = readSection(2);
+        arrayPts = readSection(1);
+        numCSMethods = readInt();
+        csMethodPos = pos;
+        pos += numCSMethods * 2 * Integer.BYTES;
+        numEntries = readInt();
+        entryPos = pos;
+        pos += numEntries * Integer.BYTES;
+        callSitePos = pos;
+    }
+
+    private void readContexts() {
+        int n = readInt();
+        int offsetPos = pos;
+        int elemPos = offsetPos + (n + 1) * Integer.BYTES;
+        contexts = new Context[n];
+        for (int i = 0; i < n; ++i) {
+            int start = getInt(offsetPos, i);
+            int end = getInt(offsetPos, i + 1);
+            Object[] elems = new Object[end - start];
+            for (int j = start; j < end; ++j) {
+                int tag = getInt(elemPos, j * 2);
+                int id = getInt(elemPos, j * 2 + 1);
+                elems[j - start] = switch (tag) {
+                    case Snapshots.TAG_OBJ -> objs[id];
+                    case Snapshots.TAG_INVOKE -> invokes[id];
+                    case Snapshots.TAG_TYPE -> types[id];
+                    default -> throw new AnalysisException(
+                            "Unknown context element tag: " + tag);
+                };
+            }
+            contexts[i] = ListContext.make(elems);
+        }
+        pos = elemPos + getInt(offsetPos, n) * 2 * Integer.BYTES;
+    }
+
+    private <T> T[] readTable(IntFunction<T[]> factory, Reader<T> reader) {
+        T[] table = factory.apply(readInt());
+        for (int i = 0; i < table.length; ++i) {
+            table[i] = reader.read();
+        }
+        return table;
+    }
+
+    private Section readSection(int keyWidth) {
+        int size = readInt();
+        int keyPos = pos;
+        int offsetPos = keyPos + size * keyWidth * Integer.BYTES;
+        int dataPos = offsetPos + (size + 1) * Integer.BYTES;
+        Section section = new Section(size, keyWidth, keyPos, offsetPos, dataPos);
+        pos = dataPos + getInt(offsetPos, size) * Integer.BYTES;
+        return section;
+    }
+
+    private static <T> T resolve(T element, String kind) {
+        if (element == null) {
+            throw new AnalysisException("Failed to resolve " + kind +
+                    " in snapshot, the snapshot may be produced" +
+                    " by a different program");
+        }
+        return element;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[readInt()];
+        buffer.get(pos, bytes);
+        pos += bytes.length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readInt() {
+        int i = buffer.getInt(pos);
+        pos += Integer.BYTES;
+        return i;
+    }
+
+    /**
+     * @return the i-th int starting from given position.
+     */
+    private int getInt(int base, int i) {
+        return buffer.getInt(base + i * Integer.BYTES);
+    }
+
+    private Obj getObjOf(int csObjId) {
+        return objs[getInt(csObjPos, csObjId * 2 + 1)];
+    }
+
+    /**
+     * Adds ids of context-sensitive objects in given row to a collection.
+     */
+    private void addCSObjs(Section section, int row, Collection<Integer> result) {
+        int start = getInt(section.offsetPos(), row);
+        int end = getInt(section.offsetPos(), row + 1);
+        for (int i = start; i < end; ++i) {
+            result.add(getInt(section.dataPos(), i));
+        }
+    }
+
+    private Set<Obj> toObjs(Collection<Integer> csObjIds) {
+        Set<Obj> result = Sets.newHybridSet();
+        csObjIds.forEach(id -> result.add(getObjOf(id)));
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Binary searches a row by its keys.
+     *
+     * @return index of the row, or -1 if the row is absent.
+     */
+    private int findRow(Section section, int key1, int key2) {
+        int low = 0, high = section.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int k1 = getInt(section.keyPos(), mid * section.keyWidth());
+            int cmp = Integer.compare(k1, key1);
+            if (cmp == 0 && section.keyWidth() == 2) {
+                int k2 = getInt(section.keyPos(), mid * 2 + 1);
+                cmp = Integer.compare(k2, key2);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Set<Integer> getCSObjIdsOf(Var var) {
+        Set<Integer> result = Sets.newHybridSet();
+        Integer varId = varIds.get(var);
+        if (varId != null) {
+            int start = getInt(varStartPos, varId);
+            int end = getInt(varStartPos, varId + 1);
+            for (int row = start; row < end; ++row) {
+                addCSObjs(varPts, row, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return varPointsTo.computeIfAbsent(var,
+                v -> toObjs(getCSObjIdsOf(v)));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            throw new AnalysisException(field + " is not instance field");
+        }
+        Integer fieldId = fieldIds.get(field);
+        if (fieldId == null) {
+            return Set.of();
+        }
+        Set<Integer> result = Sets.newHybridSet();
+        for (int csObjId : getCSObjIdsOf(base)) {
+            int row = findRow(instanceFieldPts, csObjId, fieldId);
+            if (row >= 0) {
+                addCSObjs(instanceFieldPts, row, result);
+            }
+        }
+        return toObjs(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            throw new AnalysisException(field + " is not static field");
+        }
+        Integer fieldId = fieldIds.get(field);
+        int row = fieldId == null ? -1 : findRow(staticFieldPts, fieldId, 0);
+        if (row < 0) {
+            return Set.of();
+        }
+        List<Integer> result = new ArrayList<>();
+        addCSObjs(staticFieldPts, row, result);
+        return toObjs(result);
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        List<Var> result = new ArrayList<>();
+        for (int i = 0; i < vars.length; ++i) {
+            if (getInt(varStartPos, i) < getInt(varStartPos, i + 1)) {
+                result.add(vars[i]);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        Set<Obj> result = Sets.newHybridOrderedSet();
+        for (int i = 0; i < numCSObjs; ++i) {
+            result.add(getObjOf(i));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return getCSResult().getCSVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return getCSResult().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return getCSResult().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return getCSResult().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return getCSResult().getCSObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        return getCSResult().getPointsToSet(var);
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return getCSResult().getCSCallGraph();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return getCSResult().getCallGraph();
+    }
+
+    /**
+     * Materializes all context-sensitive elements and the call graph
+     * in the snapshot.
+     */
+    private synchronized PointerAnalysisResult getCSResult() {
+        if (csResult == null) {
+            CSManager csManager = new MapBasedCSManager();
+            CSObj[] csObjs = new CSObj[numCSObjs];
+            for (int i = 0; i < numCSObjs; ++i) {
+                csObjs[i] = csManager.getCSObj(
+                        contexts[getInt(csObjPos, i * 2)], getObjOf(i));
+            }
+            for (int row = 0; row < varPts.size(); ++row) {
+                CSVar csVar = csManager.getCSVar(
+                        contexts[getInt(varPts.keyPos(), row * 2 + 1)],
+                        vars[getInt(varPts.keyPos(), row * 2)]);
+                setPointsToSet(csVar, varPts, row, csObjs);
+            }
+            for (int row = 0; row < staticFieldPts.size(); ++row) {
+                StaticField sfield = csManager.getStaticField(
+                        fields[getInt(staticFieldPts.keyPos(), row)]);
+                setPointsToSet(sfield, staticFieldPts, row, csObjs);
+            }
+            for (int row = 0; row < instanceFieldPts.size(); ++row) {
+                InstanceField ifield = csManager.getInstanceField(
+                        csObjs[getInt(instanceFieldPts.keyPos(), row * 2)],
+                        fields[getInt(instanceFieldPts.keyPos(), row * 2 + 1)]);
+                setPointsToSet(ifield, instanceFieldPts, row, csObjs);
+            }
+            for (int row = 0; row < arrayPts.size(); ++row) {
+                ArrayIndex arrayIndex = csManager.getArrayIndex(
+                        csObjs[getInt(arrayPts.keyPos(), row)]);
+                setPointsToSet(arrayIndex, arrayPts, row, csObjs);
+            }
+            csResult = new PointerAnalysisResultImpl(
+                    csManager, buildCallGraph(csManager, csObjs));
+        }
+        return csResult;
+    }
+
+    private void setPointsToSet(Pointer pointer, Section section,
+                                int row, CSObj[] csObjs) {
+        PointsToSet pts = PointsToSetFactory.make();
+        int start = getInt(section.offsetPos(), row);
+        int end = getInt(section.offsetPos(), row + 1);
+        for (int i = start; i < end; ++i) {
+            pts.addObject(csObjs[getInt(section.dataPos(), i)]);
+        }
+        pointer.setPointsToSet(pts);
+    }
+
+    private CSCallGraph buildCallGraph(CSManager csManager, CSObj[] csObjs) {
+        CSCallGraph callGraph = new CSCallGraph(csManager);
+        CSMethod[] csMethods = new CSMethod[numCSMethods];
+        for (int i = 0; i < numCSMethods; ++i) {
+            csMethods[i] = csManager.getCSMethod(
+                    contexts[getInt(csMethodPos, i * 2)],
+                    methods[getInt(csMethodPos, i * 2 + 1)]);
+            callGraph.addReachableMethod(csMethods[i]);
+        }
+        for (int i = 0; i < numEntries; ++i) {
+            callGraph.addEntryMethod(csMethods[getInt(entryPos, i)]);
+        }
+        CallKind[] kinds = CallKind.values();
+        int numCallSites = getInt(callSitePos, 0);
+        int keyPos = callSitePos + Integer.BYTES;
+        int offsetPos = keyPos + numCallSites * 2 * Integer.BYTES;
+        int edgePos = offsetPos + (numCallSites + 1) * Integer.BYTES;
+        for (int i = 0; i < numCallSites; ++i) {
+            CSCallSite csCallSite = csManager.getCSCallSite(
+                    contexts[getInt(keyPos, i * 2)],
+                    invokes[getInt(keyPos, i * 2 + 1)]);
+            int start = getInt(offsetPos, i);
+            int end = getInt(offsetPos, i + 1);
+            for (int j = start; j < end; ++j) {
+                CSMethod callee = csMethods[getInt(edgePos, j * 2)];
+                CallKind kind = kinds[getInt(edgePos, j * 2 + 1)];
+                callGraph.addEdge(new Edge<>(kind, csCallSite, callee));
+            }
+        }
+        return callGraph;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read();
+    }
+
+    /**
+     * A section of points-to sets in CSR form.
+     *
+     * @param size      number of rows
+     * @param keyWidth  number of keys of each row
+     * @param keyPos    position of keys
+     * @param offsetPos position of row offsets
+     * @param dataPos   position of object ids
+     */
+    private record Section(int size, int keyWidth,
+                           int keyPos, int offsetPos, int dataPos) {
+    }
+}
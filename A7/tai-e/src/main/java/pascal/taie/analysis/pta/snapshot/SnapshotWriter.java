@@ -0,0 +1,402 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodes a pointer analysis result into the snapshot format
+ * described in {@link Snapshots}.
+ */
+class SnapshotWriter {
+
+    private final PointerAnalysisResult result;
+
+    private final Indexer<JMethod> methods = new Indexer<>();
+
+    private final Indexer<JField> fields = new Indexer<>();
+
+    private final Indexer<Type> types = new Indexer<>();
+
+    private final Indexer<Var> vars = new Indexer<>();
+
+    private final Indexer<Invoke> invokes = new Indexer<>();
+
+    private final Indexer<Obj> objs = new Indexer<>();
+
+    private final Indexer<Context> contexts = new Indexer<>();
+
+    private final Indexer<CSObj> csObjs = new Indexer<>();
+
+    private final Indexer<CSMethod> csMethods = new Indexer<>();
+
+    SnapshotWriter(PointerAnalysisResult result) {
+        this.result = result;
+    }
+
+    void write(Path path) throws IOException {
+        // encode pointers and call graph first, so that all symbols
+        // referenced by them have been indexed before writing symbol tables
+        List<Row> varRows = toRows(result.getCSVars(),
+                v -> getId(v.getVar()), v -> getId(v.getContext()));
+        varRows.sort(Row.ORDER);
+        List<Row> staticFieldRows = toRows(result.getStaticFields(),
+                f -> getId(f.getField()), f -> 0);
+        staticFieldRows.sort(Row.ORDER);
+        List<Row> instanceFieldRows = toRows(result.getInstanceFields(),
+                f -> getId(f.getBase()), f -> getId(f.getField()));
+        instanceFieldRows.sort(Row.ORDER);
+        List<Row> arrayRows = toRows(result.getArrayIndexes(),
+                a -> getId(a.getArray()), a -> 0);
+        arrayRows.sort(Row.ORDER);
+        CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+        callGraph.reachableMethods().forEach(this::getId);
+        int[] entries = callGraph.entryMethods().mapToInt(this::getId).toArray();
+        List<CSCallSite> callSites = new ArrayList<>();
+        for (CSMethod csMethod : List.copyOf(csMethods.getElements())) {
+            callGraph.getCallSitesIn(csMethod).forEach(csCallSite -> {
+                if (callGraph.edgesOutOf(csCallSite).findAny().isPresent()) {
+                    getId(csCallSite.getContext());
+                    getId(csCallSite.getCallSite());
+                    callSites.add(csCallSite);
+                }
+            });
+        }
+        // all objects have been indexed, so unsupported objects are
+        // rejected before the file is created
+        List<int[]> encodedObjs = new ArrayList<>();
+        for (Obj obj : objs.getElements()) {
+            New allocSite = getAllocationSite(obj);
+            encodedObjs.add(new int[]{
+                    getId(allocSite.getContainer()), allocSite.getIndex()});
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(Snapshots.MAGIC);
+            out.writeInt(Snapshots.VERSION);
+            writeSymbolTables(out, encodedObjs);
+            // context-sensitive objects
+            out.writeInt(csObjs.size());
+            for (CSObj csObj : csObjs.getElements()) {
+                out.writeInt(getId(csObj.getContext()));
+                out.writeInt(getId(csObj.getObject()));
+            }
+            // points-to sets
+            writeRows(out, varRows, 2);
+            // start row of each variable, for querying points-to
+            // sets of variables without contexts
+            int row = 0;
+            for (int varId = 0; varId <= vars.size(); ++varId) {
+                while (row < varRows.size() && varRows.get(row).key1() < varId) {
+                    ++row;
+                }
+                out.writeInt(row);
+            }
+            writeRows(out, staticFieldRows, 1);
+            writeRows(out, instanceFieldRows, 2);
+            writeRows(out, arrayRows, 1);
+            // call graph
+            out.writeInt(csMethods.size());
+            for (CSMethod csMethod : csMethods.getElements()) {
+                out.writeInt(getId(csMethod.getContext()));
+                out.writeInt(getId(csMethod.getMethod()));
+            }
+            out.writeInt(entries.length);
+            for (int entry : entries) {
+                out.writeInt(entry);
+            }
+            writeCallSites(out, callGraph, callSites);
+        }
+        // positions in snapshots are ints, see SnapshotResult
+        long size = Files.size(path);
+        if (size > Integer.MAX_VALUE) {
+            Files.delete(path);
+            throw new AnalysisException(String.format(
+                    "Snapshot of %d bytes exceeds the max size (%d bytes)",
+                    size, Integer.MAX_VALUE));
+        }
+    }
+
+    private void writeSymbolTables(DataOutputStream out, List<int[]> encodedObjs)
+            throws IOException {
+        // the tables are written from the most derived to the least derived,
+        // i.e., contexts before objects and call sites, objects and call
+        // sites before methods, so that indexing contexts completes
+        // all other tables before they are written
+        List<int[]> encodedContexts = new ArrayList<>();
+        for (Context context : contexts.getElements()) {
+            encodedContexts.add(encode(context));
+        }
+        out.writeInt(methods.size());
+        for (JMethod method : methods.getElements()) {
+            writeString(out, method.getSignature());
+        }
+        out.writeInt(fields.size());
+        for (JField field : fields.getElements()) {
+            writeString(out, field.getSignature());
+        }
+        out.writeInt(types.size());
+        for (Type type : types.getElements()) {
+            writeString(out, type.getName());
+        }
+        out.writeInt(vars.size());
+        for (Var var : vars.getElements()) {
+            out.writeInt(getId(var.getMethod()));
+            out.writeInt(var.getIndex());
+        }
+        out.writeInt(invokes.size());
+        for (Invoke invoke : invokes.getElements()) {
+            out.writeInt(getId(invoke.getContainer()));
+            out.writeInt(invoke.getIndex());
+        }
+        out.writeInt(encodedObjs.size());
+        for (int[] obj : encodedObjs) {
+            out.writeInt(obj[0]);
+            out.writeInt(obj[1]);
+        }
+        out.writeInt(encodedContexts.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (int[] context : encodedContexts) {
+            offset += context.length / 2;
+            out.writeInt(offset);
+        }
+        for (int[] context : encodedContexts) {
+            for (int i : context) {
+                out.writeInt(i);
+            }
+        }
+    }
+
+    /**
+     * Encodes a context into (tag, id) pairs of its elements.
+     */
+    private int[] encode(Context context) {
+        int[] elems = new int[context.getLength() * 2];
+        for (int i = 0; i < context.getLength(); ++i) {
+            Object elem = context.getElementAt(i);
+            if (elem instanceof Obj obj) {
+                elems[i * 2] = Snapshots.TAG_OBJ;
+                elems[i * 2 + 1] = getId(obj);
+            } else if (elem instanceof Invoke invoke) {
+                elems[i * 2] = Snapshots.TAG_INVOKE;
+                elems[i * 2 + 1] = getId(invoke);
+            } else if (elem instanceof Type type) {
+                elems[i * 2] = Snapshots.TAG_TYPE;
+                elems[i * 2 + 1] = getId(type);
+            } else {
+                throw new AnalysisException(
+                        "Unsupported context element in snapshot: " + elem);
+            }
+        }
+        return elems;
+    }
+
+    /**
+     * @return an allocation site which gives given object
+     * in the heap model.
+     * @throws AnalysisException if the object is not given by any
+     *                           allocation site, e.g., mock objects.
+     */
+    private static New getAllocationSite(Obj obj) {
+        Object alloc = obj.getAllocation();
+        if (alloc instanceof New allocSite) {
+            return allocSite;
+        }
+        if (alloc instanceof Collection<?> represented) {
+            // merged object, any of its represented objects is
+            // mapped to it by the heap model
+            for (Object o : represented) {
+                if (o instanceof Obj && ((Obj) o).getAllocation() instanceof New allocSite) {
+                    return allocSite;
+                }
+            }
+        }
+        throw new AnalysisException("Snapshots only support objects of" +
+                " allocation sites, as they are reconstructed by the heap" +
+                " model from New statements, but found: " + obj);
+    }
+
+    private void writeCallSites(DataOutputStream out,
+                                CallGraph<CSCallSite, CSMethod> callGraph,
+                                List<CSCallSite> callSites) throws IOException {
+        out.writeInt(callSites.size());
+        List<Edge<CSCallSite, CSMethod>> edges = new ArrayList<>();
+        for (CSCallSite csCallSite : callSites) {
+            out.writeInt(getId(csCallSite.getContext()));
+            out.writeInt(getId(csCallSite.getCallSite()));
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (CSCallSite csCallSite : callSites) {
+            List<Edge<CSCallSite, CSMethod>> outEdges =
+                    callGraph.edgesOutOf(csCallSite).toList();
+            edges.addAll(outEdges);
+            offset += outEdges.size();
+            out.writeInt(offset);
+        }
+        for (Edge<CSCallSite, CSMethod> edge : edges) {
+            out.writeInt(getId(edge.getCallee()));
+            out.writeInt(edge.getKind().ordinal());
+        }
+    }
+
+    private <P extends Pointer> List<Row> toRows(
+            Collection<P> pointers, KeyFunction<P> key1, KeyFunction<P> key2) {
+        List<Row> rows = new ArrayList<>(pointers.size());
+        for (P p : pointers) {
+            int[] pts = p.getPointsToSet()
+                    .objects()
+                    .mapToInt(this::getId)
+                    .sorted()
+                    .toArray();
+            rows.add(new Row(key1.apply(p), key2.apply(p), pts));
+        }
+        return rows;
+    }
+
+    /**
+     * Writes rows of points-to sets in CSR form: the keys of all rows,
+     * then the offsets of all rows, and finally the object ids.
+     */
+    private static void writeRows(DataOutputStream out, List<Row> rows,
+                                  int keyWidth) throws IOException {
+        out.writeInt(rows.size());
+        for (Row row : rows) {
+            out.writeInt(row.key1());
+            if (keyWidth == 2) {
+                out.writeInt(row.key2());
+            }
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (Row row : rows) {
+            offset += row.objs().length;
+            out.writeInt(offset);
+        }
+        for (Row row : rows) {
+            for (int obj : row.objs()) {
+                out.writeInt(obj);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private int getId(JMethod method) {
+        return methods.getId(method);
+    }
+
+    private int getId(JField field) {
+        return fields.getId(field);
+    }
+
+    private int getId(Type type) {
+        return types.getId(type);
+    }
+
+    private int getId(Var var) {
+        getId(var.getMethod());
+        return vars.getId(var);
+    }
+
+    private int getId(Invoke invoke) {
+        getId(invoke.getContainer());
+        return invokes.getId(invoke);
+    }
+
+    private int getId(Obj obj) {
+        return objs.getId(obj);
+    }
+
+    private int getId(Context context) {
+        int id = contexts.getId(context);
+        if (id == contexts.size() - 1) { // newly-added context
+            encode(context);
+        }
+        return id;
+    }
+
+    private int getId(CSObj csObj) {
+        getId(csObj.getContext());
+        getId(csObj.getObject());
+        return csObjs.getId(csObj);
+    }
+
+    private int getId(CSMethod csMethod) {
+        getId(csMethod.getContext());
+        getId(csMethod.getMethod());
+        return csMethods.getId(csMethod);
+    }
+
+    @FunctionalInterface
+    private interface KeyFunction<P> {
+        int apply(P pointer);
+    }
+
+    /**
+     * A row of points-to set, keyed by up to two ids.
+     */
+    private record Row(int key1, int key2, int[] objs) {
+
+        private static final Comparator<Row> ORDER = Comparator
+                .comparingInt(Row::key1)
+                .thenComparingInt(Row::key2);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Static utility methods for dumping pointer analysis results to binary
+ * snapshots and loading them back.
+ * <p>
+ * A snapshot consists of a sequence of sections, and all numbers in it are
+ * 4-byte big-endian ints:
+ * <ul>
+ *     <li>header: magic number and format version</li>
+ *     <li>symbol tables: methods, fields and types (by UTF-8 encoded
+ *     signatures or names), variables, call sites, abstract objects
+ *     and contexts</li>
+ *     <li>context-sensitive objects</li>
+ *     <li>points-to sets of variables, static fields, instance fields
+ *     and array indexes, each in compressed sparse row (CSR) form</li>
+ *     <li>the context-sensitive call graph, also in CSR form</li>
+ * </ul>
+ * Program elements are stored by their signatures and indexes in IR,
+ * so a snapshot can only be loaded into a world built from the same
+ * program which produced the snapshot. Abstract objects are stored by
+ * their allocation sites, i.e., {@code New} statements, and recreated
+ * by the heap model when loading, so results which contain objects
+ * without allocation sites, e.g., mock objects, cannot be dumped.
+ */
+public final class Snapshots {
+
+    private static final Logger logger = LogManager.getLogger(Snapshots.class);
+
+    /**
+     * Magic number of snapshot files, i.e., "TPTA".
+     */
+    static final int MAGIC = 0x54505441;
+
+    static final int VERSION = 1;
+
+    /**
+     * Tags of context elements.
+     */
+    static final int TAG_OBJ = 0;
+
+    static final int TAG_INVOKE = 1;
+
+    static final int TAG_TYPE = 2;
+
+    private Snapshots() {
+    }
+
+    /**
+     * Dumps given pointer analysis result to a snapshot file.
+     *
+     * @throws AnalysisException if the result contains objects without
+     *                           allocation sites; no file is written then.
+     */
+    public static void dump(PointerAnalysisResult result, String output) {
+        Path path = Path.of(output);
+        logger.info("Dumping pointer analysis snapshot to {} ...", path);
+        try {
+            new SnapshotWriter(result).write(path);
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to dump pointer analysis snapshot to " + path, e);
+        }
+    }
+
+    /**
+     * Loads pointer analysis result from a snapshot file. The file is
+     * memory-mapped, and points-to sets are decoded on demand.
+     *
+     * @param input   the snapshot file
+     * @param options options of the pointer analysis, which are used to
+     *                reconstruct the heap model of the snapshot
+     */
+    public static PointerAnalysisResult load(String input, AnalysisOptions options) {
+        Path path = Path.of(input);
+        logger.info("Loading pointer analysis snapshot from {} ...", path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SnapshotResult(buffer,
+                    new AllocationSiteBasedModel(options));
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to load pointer analysis snapshot from " + path, e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Dumps the result of each test case of CSPTA to a snapshot, loads it
+ * back, and checks that the loaded result answers all queries like the
+ * result of the solver. The test cases are analyzed with the
+ * context-insensitive selector, as the other selectors are left to be
+ * implemented in this assignment.
+ */
+@RunWith(Parameterized.class)
+public class SnapshotTest {
+
+    private static final String DIR = "cspta";
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> mains() {
+        return List.of("New", "Assign", "StoreLoad", "Call", "InstanceField",
+                "StaticField", "Array", "OneCall", "OneObject", "OneType",
+                "TwoCall", "TwoObject", "TwoType");
+    }
+
+    @Parameterized.Parameter
+    public String main;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() {
+        String snapshot = folder.getRoot().toPath()
+                .resolve(main + ".snapshot").toString();
+        runCSPTA("dump-snapshot:" + snapshot);
+        List<String> live = describe(World.get().getResult(CSPTA.ID));
+        runCSPTA("load-snapshot:" + snapshot);
+        PointerAnalysisResult loaded = World.get().getResult(CSPTA.ID);
+        Assert.assertTrue(loaded instanceof SnapshotResult);
+        Assert.assertEquals(String.join("\n", live),
+                String.join("\n", describe(loaded)));
+    }
+
+    private void runCSPTA(String snapshotOption) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/" + DIR, "-m", main,
+                "-a", CSPTA.ID + "=implicit-entries:false;only-app:true;cs:ci;" +
+                snapshotOption});
+    }
+
+    /**
+     * Describes the answers of a result to all queries by strings, as
+     * program elements of different runs cannot be compared directly.
+     */
+    private static List<String> describe(PointerAnalysisResult result) {
+        List<String> lines = new ArrayList<>();
+        result.getCSVars().forEach(v -> lines.add("cs-var " + v.getVar().getMethod() +
+                "/" + v + " -> " + sorted(result.getPointsToSet(v))));
+        result.getVars().forEach(v -> lines.add("var " + v.getMethod() +
+                "/" + v + " -> " + sorted(result.getPointsToSet(v))));
+        result.getStaticFields().forEach(f -> lines.add("static-field " + f +
+                " -> " + sorted(f.getPointsToSet().objects().toList()) +
+                " / " + sorted(result.getPointsToSet(f.getField()))));
+        result.getInstanceFields().forEach(f -> lines.add("instance-field " +
+                f + " -> " + sorted(f.getPointsToSet().objects().toList())));
+        result.getVars().forEach(v -> result.getInstanceFields().forEach(f ->
+                lines.add("field " + v.getMethod() + "/" + v + "." +
+                        f.getField() + " -> " + sorted(
+                        result.getPointsToSet(v, f.getField())))));
+        result.getArrayIndexes().forEach(a -> lines.add("array-index " + a +
+                " -> " + sorted(a.getPointsToSet().objects().toList())));
+        lines.add("objects " + sorted(result.getObjects()));
+        lines.add("cs-objects " + sorted(result.getCSObjects()));
+        describe("cs-call-graph", result.getCSCallGraph(), lines);
+        describe("call-graph", result.getCallGraph(), lines);
+        return lines.stream().sorted().distinct().toList();
+    }
+
+    private static <CS, M> void describe(String name, CallGraph<CS, M> callGraph,
+                                         List<String> lines) {
+        lines.add(name + " entries " + sorted(callGraph.entryMethods().toList()));
+        lines.add(name + " methods " + sorted(callGraph.reachableMethods().toList()));
+        lines.add(name + " edges " + sorted(callGraph.edges()
+                .map(e -> e.getKind() + " " + e.getCallSite() + " -> " + e.getCallee())
+                .toList()));
+        callGraph.reachableMethods().forEach(m -> lines.add(name + " callers of " +
+                m + " " + sorted(callGraph.getCallersOf(m))));
+    }
+
+    private static List<String> sorted(Collection<?> elems) {
+        return sorted(elems.stream());
+    }
+
+    private static List<String> sorted(Stream<?> elems) {
+        return elems.map(Objects::toString).sorted().toList();
+    }
+}
@@ -23,6 +23,10 @@ tasks.compileTestJava { options.encoding = "UTF-8" }
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
+    // -Ptaie.counters=dump|compare enables the regression gate on solver counters
+    listOf("taie.counters", "taie.counters.margin").forEach { key ->
+        project.findProperty(key)?.let { systemProperty(key, it) }
+    }
 }
 
 java {
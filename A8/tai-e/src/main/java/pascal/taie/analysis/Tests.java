@@ -24,11 +24,18 @@ package pascal.taie.analysis;
 
 import pascal.taie.Main;
 import pascal.taie.analysis.misc.ClassDumper;
+import pascal.taie.analysis.pta.cs.SolverCounters;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Static utility methods for testing.
@@ -48,27 +55,130 @@ public final class Tests {
      */
     private static final boolean DUMP_IR = true;
 
+    /**
+     * Mode of the regression gate on solver counters, i.e., "dump" to
+     * record the counters to the baselines, or "compare" to check the
+     * counters against the baselines. The gate is disabled if absent.
+     */
+    private static final String COUNTERS_ACTION =
+            System.getProperty("taie.counters");
+
+    /**
+     * Max fraction by which a counter can exceed its baseline. Counters of
+     * the topo work list vary by a few percent from run to run, as ties
+     * in its order follow large points-to sets, which are hash sets of
+     * objects with identity hash codes.
+     */
+    private static final double COUNTERS_MARGIN = Double.parseDouble(
+            System.getProperty("taie.counters.margin", "0.1"));
+
     public static void testCSPTA(String dir, String main, String... opts) {
-        doTestPTA("cspta", dir, main, opts);
+        doTestPTA("cspta", null, dir, main, opts);
+    }
+
+    /**
+     * Tests CS pointer analysis in given mode, e.g., a work-list policy.
+     * Different modes do different work, so each mode has its own
+     * baseline of solver counters, {@code <main>-<id>-<mode>-counters.txt}.
+     * The counters are dumped or checked only if the results match.
+     * Runs without a mode are not checked by the counters gate.
+     */
+    public static void testCSPTAInMode(@Nullable String mode,
+                                       String dir, String main, String... opts) {
+        doTestPTA("cspta", mode, dir, main, opts);
+    }
+
+    /**
+     * Runs CS pointer analysis on a generated workload, without
+     * comparing the results. Unless given options specify taint-config,
+     * the taint configuration generated with the workload is used.
+     *
+     * @see pascal.taie.analysis.workload.WorkloadGenerator
+     */
+    public static void runCSPTA(String classPath, String main, String... opts) {
+        List<String> ptaArgs = new ArrayList<>();
+        Collections.addAll(ptaArgs, opts);
+        if (ptaArgs.stream().noneMatch(opt -> opt.contains("taint-config"))) {
+            ptaArgs.add("taint-config:" +
+                    Paths.get(classPath, "taint-config.yml"));
+        }
+        runPTA("cspta", classPath, main, false, ptaArgs.toArray(new String[0]));
     }
 
-    private static void doTestPTA(
-            String id, String dir, String main, String... opts) {
+    private static void doTestPTA(String id, @Nullable String mode,
+                                  String dir, String main, String... opts) {
+        String classPath = "src/test/resources/pta/" + dir;
+        List<String> ptaArgs = new ArrayList<>();
+        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
+        ptaArgs.add("action:" + action);
+        String file = getExpectedFile(classPath, main, id);
+        ptaArgs.add("file:" + file);
+        Collections.addAll(ptaArgs, opts);
+        SolverCounters.reset();
+        runPTA(id, classPath, main, DUMP_IR, ptaArgs.toArray(new String[0]));
+        if (COUNTERS_ACTION != null && mode != null) {
+            checkCounters(getCountersFile(classPath, main, id, mode));
+        }
+    }
+
+    /**
+     * Dumps the solver counters of the last run to the baseline file,
+     * or checks them against the baseline file, according to
+     * {@link #COUNTERS_ACTION}. Counters absent from the baseline are
+     * ignored, so that adding a counter does not invalidate existing
+     * baselines, but a missing baseline file fails the comparison.
+     */
+    private static void checkCounters(Path baselineFile) {
+        Map<String, Long> counters = SolverCounters.snapshot();
+        try {
+            if (COUNTERS_ACTION.equals("dump")) {
+                List<String> lines = new ArrayList<>();
+                counters.forEach((name, value) -> lines.add(name + ": " + value));
+                Files.write(baselineFile, lines);
+                return;
+            }
+            if (!Files.exists(baselineFile)) {
+                throw new AssertionError("Baseline of solver counters " +
+                        baselineFile + " does not exist," +
+                        " record it with -Ptaie.counters=dump");
+            }
+            Map<String, Long> baseline = new TreeMap<>();
+            for (String line : Files.readAllLines(baselineFile)) {
+                int i = line.indexOf(':');
+                if (i > 0) {
+                    baseline.put(line.substring(0, i).trim(),
+                            Long.parseLong(line.substring(i + 1).trim()));
+                }
+            }
+            List<String> exceeded = new ArrayList<>();
+            baseline.forEach((name, expected) -> {
+                Long given = counters.get(name);
+                if (given != null && given > expected * (1 + COUNTERS_MARGIN)) {
+                    exceeded.add(String.format("%s, baseline: %d, given: %d",
+                            name, expected, given));
+                }
+            });
+            if (!exceeded.isEmpty()) {
+                throw new AssertionError("Solver counters exceed baseline " +
+                        baselineFile + ":\n" + String.join("\n", exceeded));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void runPTA(String id, String classPath, String main,
+                               boolean dumpIR, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
-        String classPath = "src/test/resources/pta/" + dir;
         Collections.addAll(args, "-cp", classPath);
         Collections.addAll(args, "-m", main);
-        if (DUMP_IR) {
+        if (dumpIR) {
             // dump IR
             Collections.addAll(args, "-a", ClassDumper.ID);
         }
         List<String> ptaArgs = new ArrayList<>();
         ptaArgs.add("implicit-entries:false");
-        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        ptaArgs.add("action:" + action);
-        String file = getExpectedFile(classPath, main, id);
-        ptaArgs.add("file:" + file);
         boolean specifyOnlyApp = false;
         for (String opt : opts) {
             ptaArgs.add(opt);
@@ -94,4 +204,14 @@ public final class Tests {
         String fileName = String.format("%s-%s-expected.txt", main, id);
         return Paths.get(dir, fileName).toString();
     }
+
+    /**
+     * @return the baseline file of solver counters for given test case,
+     * analysis and mode.
+     */
+    private static Path getCountersFile(String dir, String main,
+                                        String id, String mode) {
+        String fileName = String.format("%s-%s-%s-counters.txt", main, id, mode);
+        return Paths.get(dir, fileName);
+    }
 }
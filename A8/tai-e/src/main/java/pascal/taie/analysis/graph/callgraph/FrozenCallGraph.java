@@ -0,0 +1,451 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form.
+ * <p>
+ * Methods and call sites are numbered densely. Call sites are numbered
+ * method by method, so the call sites of each method form a contiguous
+ * id range. Call edges are stored in {@code int[]}s, both forward
+ * (from call sites to callees) and reverse (from callees to call edges),
+ * so traversals do not chase pointers through per-element edge sets.
+ * {@link Edge} objects are created only when edges are streamed.
+ * <p>
+ * The iteration order of methods, call sites and edges is the order
+ * of the call graph that was frozen.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public final class FrozenCallGraph<CallSite, Method>
+        implements CallGraph<CallSite, Method> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final List<Method> methods;
+
+    private final List<CallSite> callSites;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    /**
+     * Number of reachable methods. Reachable methods have the lowest ids.
+     */
+    private final int nReachable;
+
+    private final int[] entries;
+
+    /**
+     * Call sites of method m are ids in [callSiteStart[m], callSiteStart[m + 1]).
+     */
+    private final int[] callSiteStart;
+
+    /**
+     * Maps each call site to the id of its container method.
+     */
+    private final int[] containers;
+
+    /**
+     * Edges out of call site c are indexes in [edgeStart[c], edgeStart[c + 1]).
+     */
+    private final int[] edgeStart;
+
+    private final int[] edgeCallees;
+
+    private final byte[] edgeKinds;
+
+    private final int[] edgeCallSites;
+
+    /**
+     * Edges into method m are inEdges[inEdgeStart[m] .. inEdgeStart[m + 1]),
+     * given as indexes of the forward edges.
+     */
+    private final int[] inEdgeStart;
+
+    private final int[] inEdges;
+
+    private FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        methodIds = Maps.newMap(callGraph.getNumberOfMethods());
+        List<Method> methodList = new ArrayList<>();
+        callGraph.reachableMethods().forEach(m -> {
+            methodIds.put(m, methodList.size());
+            methodList.add(m);
+        });
+        nReachable = methodList.size();
+        // number call sites method by method
+        callSiteIds = Maps.newMap();
+        List<CallSite> callSiteList = new ArrayList<>();
+        callSiteStart = new int[nReachable + 1];
+        for (int m = 0; m < nReachable; ++m) {
+            callSiteStart[m] = callSiteList.size();
+            callGraph.callSitesIn(methodList.get(m)).forEach(cs -> {
+                if (callSiteIds.putIfAbsent(cs, callSiteList.size()) == null) {
+                    callSiteList.add(cs);
+                }
+            });
+        }
+        callSiteStart[nReachable] = callSiteList.size();
+        int nCallSites = callSiteList.size();
+        containers = new int[nCallSites];
+        for (int m = 0; m < nReachable; ++m) {
+            for (int c = callSiteStart[m]; c < callSiteStart[m + 1]; ++c) {
+                containers[c] = m;
+            }
+        }
+        // forward edges
+        edgeStart = new int[nCallSites + 1];
+        IntBuffer callees = new IntBuffer();
+        IntBuffer sites = new IntBuffer();
+        KindBuffer kinds = new KindBuffer();
+        for (int c = 0; c < nCallSites; ++c) {
+            edgeStart[c] = callees.size;
+            int site = c;
+            callGraph.edgesOutOf(callSiteList.get(c)).forEach(edge -> {
+                Method callee = edge.getCallee();
+                Integer id = methodIds.get(callee);
+                if (id == null) { // callee is not reachable, e.g., partial graph
+                    id = methodList.size();
+                    methodIds.put(callee, id);
+                    methodList.add(callee);
+                }
+                callees.add(id);
+                sites.add(site);
+                kinds.add((byte) edge.getKind().ordinal());
+            });
+        }
+        edgeStart[nCallSites] = callees.size;
+        edgeCallees = callees.toArray();
+        edgeCallSites = sites.toArray();
+        edgeKinds = kinds.toArray();
+        methods = List.copyOf(methodList);
+        callSites = List.copyOf(callSiteList);
+        // reverse edges, by counting sort on callees
+        int nMethods = methods.size();
+        inEdgeStart = new int[nMethods + 1];
+        for (int callee : edgeCallees) {
+            ++inEdgeStart[callee + 1];
+        }
+        for (int m = 0; m < nMethods; ++m) {
+            inEdgeStart[m + 1] += inEdgeStart[m];
+        }
+        inEdges = new int[edgeCallees.length];
+        int[] next = Arrays.copyOf(inEdgeStart, nMethods);
+        for (int e = 0; e < edgeCallees.length; ++e) {
+            inEdges[next[edgeCallees[e]]++] = e;
+        }
+        entries = callGraph.entryMethods()
+                .mapToInt(methodIds::get)
+                .toArray();
+    }
+
+    /**
+     * Freezes a finished call graph. Later changes of the given
+     * call graph are not reflected in the result.
+     */
+    @SuppressWarnings("unchecked")
+    public static <CallSite, Method> FrozenCallGraph<CallSite, Method> freeze(
+            CallGraph<CallSite, Method> callGraph) {
+        if (callGraph instanceof FrozenCallGraph) {
+            return (FrozenCallGraph<CallSite, Method>) callGraph;
+        }
+        return new FrozenCallGraph<>(callGraph);
+    }
+
+    // Queries over dense ids.
+
+    /**
+     * @return the id of given method, or -1 if it is not in this graph.
+     */
+    public int getMethodId(Method method) {
+        return methodIds.getOrDefault(method, -1);
+    }
+
+    public Method getMethod(int id) {
+        return methods.get(id);
+    }
+
+    /**
+     * @return the id of given call site, or -1 if it is not in this graph.
+     */
+    public int getCallSiteId(CallSite callSite) {
+        return callSiteIds.getOrDefault(callSite, -1);
+    }
+
+    public CallSite getCallSite(int id) {
+        return callSites.get(id);
+    }
+
+    public int getNumberOfCallSites() {
+        return callSites.size();
+    }
+
+    /**
+     * @return ids of the callees of the call site with given id.
+     */
+    public IntStream calleeIdsOf(int callSiteId) {
+        return Arrays.stream(edgeCallees,
+                edgeStart[callSiteId], edgeStart[callSiteId + 1]);
+    }
+
+    /**
+     * @return ids of the call sites that call the method with given id.
+     */
+    public IntStream callerIdsOf(int methodId) {
+        return Arrays.stream(inEdges,
+                inEdgeStart[methodId], inEdgeStart[methodId + 1])
+                .map(e -> edgeCallSites[e]);
+    }
+
+    // Implementation of CallGraph interface.
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        int m = getMethodId(callee);
+        return m == -1 ? Set.of() :
+                toSet(callerIdsOf(m).mapToObj(callSites::get));
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 ? Set.of() :
+                toSet(calleeIdsOf(c).mapToObj(methods::get));
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public Method getContainerOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 ? null : methods.get(containers[c]);
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        return toSet(callSitesIn(method));
+    }
+
+    @Override
+    public Stream<CallSite> callSitesIn(Method method) {
+        int m = getMethodId(method);
+        return m == -1 || m >= nReachable ? Stream.of() :
+                callSites.subList(callSiteStart[m], callSiteStart[m + 1]).stream();
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 ? Stream.of() :
+                IntStream.range(edgeStart[c], edgeStart[c + 1])
+                        .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        int m = getMethodId(method);
+        return m == -1 ? Stream.of() :
+                Arrays.stream(inEdges, inEdgeStart[m], inEdgeStart[m + 1])
+                        .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return IntStream.range(0, edgeCallees.length)
+                .mapToObj(this::getEdge);
+    }
+
+    private Edge<CallSite, Method> getEdge(int e) {
+        return new Edge<>(KINDS[edgeKinds[e]],
+                callSites.get(edgeCallSites[e]), methods.get(edgeCallees[e]));
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edgeCallees.length;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return Arrays.stream(entries).mapToObj(methods::get);
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return methods.subList(0, nReachable).stream();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return nReachable;
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        int m = getMethodId(method);
+        return m != -1 && m < nReachable;
+    }
+
+    // Implementation of StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIds.containsKey(stmt);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Method> getResult(Stmt stmt) {
+        return isRelevant(stmt) ? getCalleesOf((CallSite) stmt) : Set.of();
+    }
+
+    // Implementation of Graph interface.
+
+    @Override
+    public boolean hasNode(Method node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Method source, Method target) {
+        int s = getMethodId(source), t = getMethodId(target);
+        if (s == -1 || t == -1 || s >= nReachable) {
+            return false;
+        }
+        for (int e = edgeStart[callSiteStart[s]];
+             e < edgeStart[callSiteStart[s + 1]]; ++e) {
+            if (edgeCallees[e] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        return edgesInTo(method)
+                .map(e -> new MethodEdge<>(getContainerOf(e.getCallSite()),
+                        method, e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        return callSitesIn(method)
+                .flatMap(this::edgesOutOf)
+                .map(e -> new MethodEdge<>(method, e.getCallee(), e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        int m = getMethodId(node);
+        return m == -1 ? Set.of() :
+                toSet(callerIdsOf(m).map(c -> containers[c])
+                        .mapToObj(methods::get));
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        int m = getMethodId(node);
+        if (m == -1 || m >= nReachable) {
+            return Set.of();
+        }
+        return toSet(Arrays.stream(edgeCallees,
+                        edgeStart[callSiteStart[m]], edgeStart[callSiteStart[m + 1]])
+                .mapToObj(methods::get));
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return Collections.unmodifiableSet(toSet(reachableMethods()));
+    }
+
+    private static <E> Set<E> toSet(Stream<E> stream) {
+        Set<E> set = Sets.newHybridOrderedSet();
+        stream.forEach(set::add);
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Growable array of ints.
+     */
+    private static class IntBuffer {
+
+        private int[] data = new int[16];
+
+        private int size;
+
+        private void add(int i) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size << 1);
+            }
+            data[size++] = i;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * Growable array of call kind ordinals.
+     */
+    private static class KindBuffer {
+
+        private byte[] data = new byte[16];
+
+        private int size;
+
+        private void add(byte b) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size << 1);
+            }
+            data[size++] = b;
+        }
+
+        private byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.callgraph.FrozenCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class PointerAnalysisResultImpl extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private static final Logger logger = LogManager.getLogger(PointerAnalysisResultImpl.class);
+
+    private final CSManager csManager;
+
+    /**
+     * Points-to sets of variables (with contexts removed).
+     */
+    private final Map<Var, Set<Obj>> varPointsTo = Maps.newMap();
+
+    /**
+     * Points-to sets of instance field accesses (with contexts removed).
+     */
+    private final Map<Pair<Var, JField>, Set<Obj>> fieldPointsTo = Maps.newMap();
+
+    private final CallGraph<CSCallSite, CSMethod> csCallGraph;
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    public PointerAnalysisResultImpl(CSManager csManager,
+                                     CallGraph<CSCallSite, CSMethod> csCallGraph) {
+        this.csManager = csManager;
+        this.csCallGraph = csCallGraph;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return csManager.getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return csManager.getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return csManager.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return csManager.getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return csManager.getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return csManager.getObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return getCSObjects()
+                .stream()
+                .map(CSObj::getObject)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        return var.getPointsToSet().getObjects();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return varPointsTo.computeIfAbsent(var, v ->
+                csManager.getCSVarsOf(var)
+                        .stream()
+                        .flatMap(csVar -> csVar.getPointsToSet().objects())
+                        .map(CSObj::getObject)
+                        .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            logger.warn("{} is not instance field", field);
+        }
+        return fieldPointsTo.computeIfAbsent(new Pair<>(base, field), p -> {
+            Set<Obj> pts = Sets.newHybridSet();
+            csManager.getCSVarsOf(base).forEach(csVar ->
+                    csVar.getPointsToSet().forEach(o -> {
+                        InstanceField ifield = csManager.getInstanceField(o, field);
+                        pts.addAll(removeContexts(ifield.getPointsToSet()));
+                    }));
+            return Collections.unmodifiableSet(pts);
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            logger.warn("{} is not static field", field);
+        }
+        StaticField sfield = csManager.getStaticField(field);
+        return removeContexts(sfield.getPointsToSet());
+    }
+
+    /**
+     * Removes contexts of a context-sensitive points-to set and
+     * returns a new resulting set.
+     */
+    private static Set<Obj> removeContexts(PointsToSet pts) {
+        return pts.objects()
+                .map(CSObj::getObject)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return csCallGraph;
+    }
+
+    /**
+     * @return the context-insensitive call graph. It is projected from
+     * the context-sensitive call graph on first call and then frozen.
+     */
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            callGraph = FrozenCallGraph.freeze(removeContexts(csCallGraph));
+        }
+        return callGraph;
+    }
+
+    /**
+     * Removes contexts of a context-sensitive call graph and
+     * returns a new resulting call graph.
+     */
+    private static CallGraph<Invoke, JMethod> removeContexts(
+            CallGraph<CSCallSite, CSMethod> csCallGraph) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        csCallGraph.entryMethods()
+                .map(CSMethod::getMethod)
+                .forEach(callGraph::addEntryMethod);
+        csCallGraph.reachableMethods()
+                .map(CSMethod::getMethod)
+                .forEach(callGraph::addReachableMethod);
+        csCallGraph.edges().forEach(edge -> {
+            Invoke callSite = edge.getCallSite().getCallSite();
+            JMethod callee = edge.getCallee().getMethod();
+            callGraph.addEdge(new Edge<>(edge.getKind(), callSite, callee));
+        });
+        return callGraph;
+    }
+}
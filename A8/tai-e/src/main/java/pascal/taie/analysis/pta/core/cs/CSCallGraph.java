@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.core.cs;
 
 import pascal.taie.analysis.graph.callgraph.AbstractCallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
@@ -31,10 +32,13 @@ import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Views;
 
-import java.util.Collections;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -45,6 +49,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Caches the invokes in each method.
+     */
+    private final Map<JMethod, Invoke[]> invokes = Maps.newMap();
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -88,6 +97,32 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         }
     }
 
+    /**
+     * Adds a call edge of given kind from a call site to a callee,
+     * if it is absent. The edge object is allocated only if the edge
+     * is new, as most attempts to add call edges are duplicates.
+     *
+     * @return true if the call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addEdge(CallKind kind, CSCallSite csCallSite, CSMethod csCallee) {
+        return !csCallSite.hasEdge(kind, csCallee) &&
+                addEdge(new Edge<>(kind, csCallSite, csCallee));
+    }
+
+    /**
+     * Releases the call edges kept by the call sites and methods of this
+     * call graph, after it has been frozen, as the frozen graph keeps all
+     * edges in its own arrays and the CS elements outlive this graph.
+     * This call graph is empty of edges afterwards.
+     */
+    public void clearEdges() {
+        reachableMethods.forEach(csMethod -> {
+            csMethod.clearEdges();
+            callSitesIn(csMethod).forEach(CSCallSite::clearEdges);
+        });
+    }
+
     @Override
     public Set<CSCallSite> getCallersOf(CSMethod callee) {
         return Views.toMappedSet(callee.getEdges(), Edge::getCallSite);
@@ -103,18 +138,37 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         return csCallSite.getContainer();
     }
 
+    /**
+     * Returns the call sites in given CS method. They are created on the
+     * first query from the cached invokes of the method, and cached in
+     * the CS method, so that later queries do not allocate.
+     */
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
-        JMethod method = csMethod.getMethod();
-        Context context = csMethod.getContext();
-        Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
-        for (Stmt s : method.getIR()) {
-            if (s instanceof Invoke) {
-                CSCallSite csCallSite = csManager.getCSCallSite(context, (Invoke) s);
-                callSites.add(csCallSite);
+        Set<CSCallSite> callSites = csMethod.getCallSites();
+        if (callSites == null) {
+            Invoke[] invokes = getInvokes(csMethod.getMethod());
+            Context context = csMethod.getContext();
+            CSCallSite[] csCallSites = new CSCallSite[invokes.length];
+            for (int i = 0; i < invokes.length; ++i) {
+                csCallSites[i] = csManager.getCSCallSite(context, invokes[i]);
             }
+            callSites = new CallSiteSet(csCallSites);
+            csMethod.setCallSites(callSites);
         }
-        return Collections.unmodifiableSet(callSites);
+        return callSites;
+    }
+
+    /**
+     * @return the invokes in given method, in the order they appear in
+     * the IR. The array is computed once per method and shared by all
+     * contexts of the method.
+     */
+    private Invoke[] getInvokes(JMethod method) {
+        return invokes.computeIfAbsent(method, m -> m.getIR()
+                .stmts()
+                .filter(s -> s instanceof Invoke)
+                .toArray(Invoke[]::new));
     }
 
     @Override
@@ -143,4 +197,42 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public Set<CSMethod> getResult(Stmt stmt) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Immutable set of the distinct call sites of a CS method,
+     * backed by an array.
+     */
+    private static class CallSiteSet extends AbstractSet<CSCallSite> {
+
+        private final CSCallSite[] callSites;
+
+        private CallSiteSet(CSCallSite[] callSites) {
+            this.callSites = callSites;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (CSCallSite callSite : callSites) {
+                if (callSite.equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<CSCallSite> iterator() {
+            return Arrays.asList(callSites).iterator();
+        }
+
+        @Override
+        public Stream<CSCallSite> stream() {
+            return Arrays.stream(callSites);
+        }
+
+        @Override
+        public int size() {
+            return callSites.length;
+        }
+    }
 }
@@ -22,12 +22,16 @@
 
 package pascal.taie.analysis.pta.core.cs.element;
 
+import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -43,9 +47,14 @@ public class CSCallSite extends AbstractCSElement {
     private CSMethod container;
 
     /**
-     * Call edges from this call site.
+     * Call edges from this call site, keyed by callee, so that an edge
+     * can be looked up before it is allocated. All edges from a call site
+     * usually have the same kind; an edge to a callee which already has
+     * an edge of another kind is kept in {@link #extraEdges}.
      */
-    private final Set<Edge<CSCallSite, CSMethod>> edges = Sets.newHybridSet();
+    private Map<CSMethod, Edge<CSCallSite, CSMethod>> edges = Maps.newHybridMap();
+
+    private Set<Edge<CSCallSite, CSMethod>> extraEdges;
 
     CSCallSite(Invoke callSite, Context context) {
         super(context);
@@ -69,11 +78,53 @@ public class CSCallSite extends AbstractCSElement {
     }
 
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
-        return edges.add(edge);
+        Edge<CSCallSite, CSMethod> old = edges.putIfAbsent(edge.getCallee(), edge);
+        if (old == null) {
+            return true;
+        } else if (old.equals(edge)) {
+            return false;
+        } else {
+            if (extraEdges == null) {
+                extraEdges = Sets.newHybridSet();
+            }
+            return extraEdges.add(edge);
+        }
+    }
+
+    /**
+     * @return true if this call site has a call edge of given kind to
+     * given callee. This check does not allocate.
+     */
+    public boolean hasEdge(CallKind kind, CSMethod callee) {
+        Edge<CSCallSite, CSMethod> edge = edges.get(callee);
+        if (edge == null) {
+            return false;
+        } else if (edge.getKind() == kind) {
+            return true;
+        } else {
+            return extraEdges != null && extraEdges.stream().anyMatch(e ->
+                    e.getKind() == kind && e.getCallee().equals(callee));
+        }
+    }
+
+    /**
+     * Releases the call edges from this call site, after they have been
+     * copied to a frozen call graph. No edge can be added afterwards.
+     */
+    public void clearEdges() {
+        edges = Map.of();
+        extraEdges = null;
     }
 
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
-        return Collections.unmodifiableSet(edges);
+        Set<Edge<CSCallSite, CSMethod>> result =
+                Views.toMappedSet(edges.values(), e -> e);
+        if (extraEdges != null) {
+            result = Sets.newHybridSet(result);
+            result.addAll(extraEdges);
+            result = Collections.unmodifiableSet(result);
+        }
+        return result;
     }
 
     @Override
@@ -44,10 +44,16 @@ public class CSMethod extends AbstractCSElement {
     /**
      * Call edges to this CS method.
      */
-    private final Set<Edge<CSCallSite, CSMethod>> edges = Sets.newHybridSet();
+    private Set<Edge<CSCallSite, CSMethod>> edges = Sets.newHybridSet();
 
     private final ResultHolder resultHolder = new AbstractResultHolder() {};
 
+    /**
+     * Call sites in this CS method. They are materialized lazily
+     * by the call graph, on the first query of this method.
+     */
+    private Set<CSCallSite> callSites;
+
     CSMethod(JMethod method, Context context) {
         super(context);
         this.method = method;
@@ -64,10 +70,30 @@ public class CSMethod extends AbstractCSElement {
         edges.add(edge);
     }
 
+    /**
+     * Releases the call edges to this CS method, after they have been
+     * copied to a frozen call graph. No edge can be added afterwards.
+     */
+    public void clearEdges() {
+        edges = Set.of();
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
 
+    /**
+     * @return the call sites in this CS method, or null if they have
+     * not been materialized yet.
+     */
+    public Set<CSCallSite> getCallSites() {
+        return callSites;
+    }
+
+    public void setCallSites(Set<CSCallSite> callSites) {
+        this.callSites = callSites;
+    }
+
     public <R> R getResult(String id, Supplier<R> supplier) {
         return resultHolder.getResult(id, supplier);
     }
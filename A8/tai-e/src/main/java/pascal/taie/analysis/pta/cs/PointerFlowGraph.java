@@ -23,35 +23,85 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * Each edge may carry a filter type, and only the objects whose types
+ * are subtypes of the filter type can flow along the edge.
  */
 class PointerFlowGraph {
 
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * Map from a pointer (node) to its successors in PFG,
+     * and the edges to the successors.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final Map<Pointer, Map<Pointer, Edge>> successors = Maps.newMap();
 
     /**
      * Adds an edge (source -> target) to this PFG.
+     * If the edge already exists with a different filter, the filter
+     * is removed, i.e., the edge is widened to let all objects flow.
      *
-     * @return true if this PFG changed as a result of the call,
-     * otherwise false.
+     * @param filter the filter type of the edge, or null if all objects
+     *               can flow along the edge.
+     * @return the added or widened edge, whose filter should be used
+     * to propagate the objects of the source, or null if this PFG
+     * did not change as a result of the call.
      */
-    boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+    Edge addEdge(Pointer source, Pointer target, Type filter) {
+        Map<Pointer, Edge> edges = successors.computeIfAbsent(
+                source, unused -> Maps.newHybridMap());
+        Edge edge = edges.get(target);
+        if (edge == null) {
+            edge = new Edge(target, filter);
+            edges.put(target, edge);
+            return edge;
+        } else if (edge.filter() != null && !Objects.equals(edge.filter(), filter)) {
+            edge = new Edge(target, null);
+            edges.put(target, edge);
+            return edge;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return pointers that have successors in the PFG.
+     */
+    Set<Pointer> getSources() {
+        return Collections.unmodifiableSet(successors.keySet());
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        Map<Pointer, Edge> edges = successors.get(pointer);
+        return edges != null ? edges.keySet() : Set.of();
+    }
+
+    /**
+     * @return out edges of given pointer in the PFG.
+     */
+    Collection<Edge> getOutEdgesOf(Pointer pointer) {
+        Map<Pointer, Edge> edges = successors.get(pointer);
+        return edges != null ? edges.values() : Set.of();
+    }
+
+    /**
+     * Represents an edge in PFG.
+     *
+     * @param target the target pointer of the edge
+     * @param filter the filter type, or null if the edge has no filter
+     */
+    record Edge(Pointer target, Type filter) {
     }
 }
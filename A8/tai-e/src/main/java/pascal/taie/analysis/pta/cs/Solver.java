@@ -27,17 +27,19 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
-import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.callgraph.FrozenCallGraph;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -45,12 +47,17 @@ import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.CastExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.ClassNames;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
 
 public class Solver {
 
@@ -60,7 +67,11 @@ public class Solver {
 
     private final HeapModel heapModel;
 
-    private final ContextSelector contextSelector;
+    /**
+     * Current context selector, which may be downgraded to
+     * {@link CISelector} when a budget is exceeded.
+     */
+    private ContextSelector contextSelector;
 
     private CSManager csManager;
 
@@ -72,8 +83,27 @@ public class Solver {
 
     private TaintAnalysiss taintAnalysis;
 
+    private SolverMetrics metrics;
+
+    private SolverCounters counters;
+
+    private SolverBudget budget;
+
     private PointerAnalysisResult result;
 
+    /**
+     * Whether objects are filtered by types on cast edges and on edges
+     * into declared-type parameters and results.
+     */
+    private boolean typeFilter;
+
+    private TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype tests, from supertypes to subtypes to test results.
+     */
+    private Map<Type, Map<Type, Boolean>> subtypeCache;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
@@ -96,6 +126,8 @@ public class Solver {
     void solve() {
         initialize();
         analyze();
+        metrics.onFinish(callGraph.getNumberOfMethods());
+        counters.onFinish(callGraph.getNumberOfMethods());
         taintAnalysis.onFinish();
     }
 
@@ -103,8 +135,16 @@ public class Solver {
         csManager = new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        workList = WorkList.make(options.getString("work-list"), pointerFlowGraph);
+        typeFilter = options.getBooleanOrDefault("type-filter", false);
+        typeSystem = World.get().getTypeSystem();
+        subtypeCache = Maps.newMap();
         taintAnalysis = new TaintAnalysiss(this);
+        metrics = new SolverMetrics(options.getString("metrics"));
+        metrics.onStart();
+        counters = SolverCounters.get(CSPTA.ID);
+        budget = new SolverBudget(options);
+        budget.onStart();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -127,6 +167,8 @@ public class Solver {
                 stmtProcessor.visit(copy);
             } else if (stmt instanceof New n) {
                 stmtProcessor.visit(n);
+            } else if (stmt instanceof Cast cast && typeFilter) {
+                stmtProcessor.visit(cast);
             } else if (stmt instanceof LoadField loadField && loadField.isStatic()) {
                 stmtProcessor.visit(loadField);
             } else if (stmt instanceof StoreField storeField && storeField.isStatic()) {
@@ -161,7 +203,7 @@ public class Solver {
             Obj obj = heapModel.getObj(stmt);
 //            Context objContext = ContextSelector.
             var csobj = csManager.getCSObj(heapContext, obj);
-            PointsToSet set = PointsToSetFactory.make(csobj);
+            PointsToSet set = makePointsToSet(csobj);
             workList.addEntry(lptr, set);
             return null;
         }
@@ -175,6 +217,18 @@ public class Solver {
             return null;
         }
 
+        @Override
+        public Void visit(Cast stmt) {
+            // x = (T) y
+            CastExp cast = stmt.getRValue();
+            if (cast.getCastType() instanceof ReferenceType castType) {
+                var lptr = csManager.getCSVar(context, stmt.getLValue());
+                var rptr = csManager.getCSVar(context, cast.getValue());
+                addPFGEdge(rptr, lptr, castType);
+            }
+            return null;
+        }
+
         @Override
         public Void visit(LoadField stmt) {
             // x = T.f
@@ -216,19 +270,20 @@ public class Solver {
                 // is source must have a result? I think it is.
                 Obj obj = taintAnalysis.markObjAsTaint(stmt, t);
                 CSObj csObj = csManager.getCSObj(taintAnalysis.getEmptyContext(), obj);
-                PointsToSet set = PointsToSetFactory.make(csObj);
+                PointsToSet set = makePointsToSet(csObj);
                 workList.addEntry(csManager.getCSVar(context, stmt.getLValue()), set);
             }
 
-            if (callGraph.addEdge(new Edge<>(CallKind.STATIC, csCallSite
-                    , csManager.getCSMethod(ct, callee)))) {
+            if (callGraph.addEdge(CallKind.STATIC, csCallSite, csCallee)) {
+                metrics.onNewCallEdge();
+                counters.onNewCallEdge();
                 addReachable(csCallee);
                 for (int i = 0; i < stmt.getInvokeExp().getArgCount(); i++) {
                     var arg = stmt.getInvokeExp().getArg(i);
                     var argPtr = csManager.getCSVar(context, arg);
                     var param = callee.getIR().getParam(i);
                     var paramPtr = csManager.getCSVar(ct, param);
-                    addPFGEdge(argPtr, paramPtr);
+                    addPFGEdge(argPtr, paramPtr, getFilter(param));
 
                     if (taintAnalysis.isArgToResult(callee, i, t)) {
                         var lvarPtr = csManager.getCSVar(context, stmt.getLValue());
@@ -242,7 +297,7 @@ public class Solver {
             var lvarPtr = csManager.getCSVar(context, lvar);
             for (Var returnVar : callee.getIR().getReturnVars()) {
                 var returnVarPtr = csManager.getCSVar(ct, returnVar);
-                addPFGEdge(returnVarPtr, lvarPtr);
+                addPFGEdge(returnVarPtr, lvarPtr, getFilter(lvar));
             }
 
 
@@ -254,20 +309,76 @@ public class Solver {
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
+        addPFGEdge(source, target, null);
+    }
+
+    /**
+     * Adds an edge "source -> target" with a filter type to the PFG.
+     * Only the objects whose types are subtypes of the filter type can flow
+     * along the edge. If the filter is null, all objects can flow.
+     */
+    private void addPFGEdge(Pointer source, Pointer target, Type filter) {
         // TODO - finish me
-        AtomicBoolean flag = new AtomicBoolean(false);
-        pointerFlowGraph.getSuccsOf(source).forEach(succ -> {
-            if (succ.equals(target))
-                flag.set(true);
-        });
-        if (!flag.get()) {
-            pointerFlowGraph.addEdge(source, target);
-            if (!source.getPointsToSet().isEmpty()) {
-                workList.addEntry(target, source.getPointsToSet());
+        PointerFlowGraph.Edge edge = pointerFlowGraph.addEdge(source, target, filter);
+        if (edge != null) {
+            metrics.onNewPFGEdge(source, target);
+            counters.onNewPFGEdge();
+            PointsToSet pts = filter(source.getPointsToSet(), edge.filter());
+            if (!pts.isEmpty()) {
+                workList.addEntry(target, pts);
             }
         }
     }
 
+    /**
+     * @return the filter type for the objects flowing into given variable,
+     * i.e., the declared type of the variable, or null if the variable
+     * can hold any object or type filtering is disabled.
+     */
+    private Type getFilter(Var var) {
+        return typeFilter && var.getType() instanceof ReferenceType type
+                && !type.getName().equals(ClassNames.OBJECT) ? type : null;
+    }
+
+    /**
+     * @return the objects in pts whose types are subtypes of filter.
+     * If all objects pass the filter, pts itself is returned, and
+     * a new set is allocated only when some object is filtered out.
+     */
+    private PointsToSet filter(PointsToSet pts, Type filter) {
+        if (filter == null) {
+            return pts;
+        }
+        PointsToSet result = null;
+        for (CSObj csObj : pts) {
+            if (isSubtype(csObj.getObject().getType(), filter)) {
+                if (result != null) {
+                    result.addObject(csObj);
+                }
+            } else if (result == null) {
+                // the objects before the first rejected one all passed
+                result = makePointsToSet();
+                for (CSObj passed : pts) {
+                    if (passed == csObj) {
+                        break;
+                    }
+                    result.addObject(passed);
+                }
+            }
+        }
+        return result != null ? result : pts;
+    }
+
+    /**
+     * Subtype test with cached results, as the filters are checked
+     * for every object flowing along filtered PFG edges.
+     */
+    private boolean isSubtype(Type subtype, Type supertype) {
+        return subtypeCache
+                .computeIfAbsent(supertype, unused -> Maps.newHybridMap())
+                .computeIfAbsent(subtype, t -> typeSystem.isSubtype(supertype, t));
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
@@ -275,6 +386,15 @@ public class Solver {
         // TODO - finish me
         while (!workList.isEmpty()) {
             var entry = workList.pollEntry();
+            metrics.onPoll(workList.size());
+            counters.onPoll();
+            if (!(contextSelector instanceof CISelector)) {
+                String exceeded = budget.check(csManager, callGraph);
+                if (exceeded != null) {
+                    downgrade(exceeded);
+                }
+            }
+            long startTime = metrics.now();
             var ptr = entry.pointer();
             PointsToSet delta = propagate(ptr, entry.pointsToSet());
             if (ptr instanceof CSVar varPtr && !delta.isEmpty()) {
@@ -311,10 +431,28 @@ public class Solver {
                         processCall(varPtr, csObj);
                     }
                 }
+                if (metrics.isEnabled()) {
+                    metrics.onProcessed(csManager.getCSMethod(context, var.getMethod()),
+                            delta.size(), startTime);
+                }
             }
         }
     }
 
+    /**
+     * Switches to context insensitivity for the rest of solving.
+     * The analysis remains sound: the elements created so far keep their
+     * contexts, while methods and objects reached afterwards are analyzed
+     * under empty contexts, until the fixpoint is reached.
+     */
+    private void downgrade(String exceeded) {
+        logger.warn("Pointer analysis exceeds {}, downgrade context selector" +
+                " from {} to {}", exceeded,
+                contextSelector.getClass().getSimpleName(),
+                CISelector.class.getSimpleName());
+        contextSelector = new CISelector();
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -322,15 +460,20 @@ public class Solver {
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
         var pointSet = pointer.getPointsToSet();
-        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet delta = makePointsToSet();
         for (CSObj obj : pointsToSet) {
             if (pointSet.addObject(obj)) {
                 delta.addObject(obj);
             }
         }
+        counters.onPropagate(delta.size());
         if (!delta.isEmpty()) {
-            for (Pointer s : pointerFlowGraph.getSuccsOf(pointer)) {
-                workList.addEntry(s, delta);
+            metrics.onPropagate(pointer, delta.size());
+            for (PointerFlowGraph.Edge edge : pointerFlowGraph.getOutEdgesOf(pointer)) {
+                PointsToSet pts = filter(delta, edge.filter());
+                if (!pts.isEmpty()) {
+                    workList.addEntry(edge.target(), pts);
+                }
             }
         }
         return delta;
@@ -359,19 +502,21 @@ public class Solver {
             var ct = contextSelector.selectContext(csCallSite, recvObj, callee);
             var csCallee = csManager.getCSMethod(ct, callee);
             var thisVarPtr = csManager.getCSVar(ct, callee.getIR().getThis());
-            PointsToSet set = PointsToSetFactory.make(recvObj);
+            PointsToSet set = makePointsToSet(recvObj);
             workList.addEntry(thisVarPtr, set);
 
 
-            if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),
-                    csCallSite, csCallee))) {
+            if (callGraph.addEdge(CallGraphs.getCallKind(invoke),
+                    csCallSite, csCallee)) {
+                metrics.onNewCallEdge();
+                counters.onNewCallEdge();
                 addReachable(csCallee);
                 var invokeExp = invoke.getInvokeExp();
                 for (int i = 0; i < invokeExp.getArgCount(); i++) {
                     var arg = invokeExp.getArg(i);
                     CSVar argPtr = csManager.getCSVar(context, arg);
                     var param = callee.getIR().getParam(i);
-                    addPFGEdge(argPtr, csManager.getCSVar(ct, param));
+                    addPFGEdge(argPtr, csManager.getCSVar(ct, param), getFilter(param));
 
                     // pay attention, type is different here.
                     if (taintAnalysis.isArgToBase(callee, i, recv.getVar().getType())) {
@@ -387,7 +532,8 @@ public class Solver {
                     continue;
 
                 for (Var returnVar : callee.getIR().getReturnVars()) {
-                    addPFGEdge(csManager.getCSVar(ct, returnVar), csManager.getCSVar(context, lvar));
+                    addPFGEdge(csManager.getCSVar(ct, returnVar),
+                            csManager.getCSVar(context, lvar), getFilter(lvar));
                 }
 
                 if (taintAnalysis.isSource(callee, t)) {
@@ -395,7 +541,7 @@ public class Solver {
                     Obj obj = taintAnalysis.markObjAsTaint(invoke, t);
                     CSObj csObj = csManager.getCSObj(taintAnalysis.getEmptyContext(), obj);
 //                    csManager.getCSVar(context, lvar).getPointsToSet().addObject(csObj);
-                    PointsToSet set1 = PointsToSetFactory.make(csObj);
+                    PointsToSet set1 = makePointsToSet(csObj);
                     workList.addEntry(csManager.getCSVar(context, invoke.getLValue()), set1);
                 }
 
@@ -407,6 +553,16 @@ public class Solver {
         }
     }
 
+    private PointsToSet makePointsToSet() {
+        counters.onNewPointsToSet();
+        return PointsToSetFactory.make();
+    }
+
+    private PointsToSet makePointsToSet(CSObj obj) {
+        counters.onNewPointsToSet();
+        return PointsToSetFactory.make(obj);
+    }
+
     /**
      * Resolves the callee of a call site with the receiver object.
      *
@@ -416,13 +572,22 @@ public class Solver {
      * @return the resolved callee.
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
+        counters.onDispatch();
         Type type = recv != null ? recv.getObject().getType() : null;
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * @return the result of this solver. The call graph in the result
+     * is frozen and the edges of the live call graph are released,
+     * so this method should be called after solving.
+     */
     public PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(csManager, callGraph);
+            FrozenCallGraph<CSCallSite, CSMethod> frozen =
+                    FrozenCallGraph.freeze(callGraph);
+            callGraph.clearEdges();
+            result = new PointerAnalysisResultImpl(csManager, frozen);
         }
         return result;
     }
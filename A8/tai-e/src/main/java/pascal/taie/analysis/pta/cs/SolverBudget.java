@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.config.AnalysisOptions;
+
+/**
+ * Time and memory budgets of {@link Solver}. A budget is disabled
+ * if its option is absent or negative:
+ * <ul>
+ *     <li>time-limit: max wall time of solving, in seconds</li>
+ *     <li>max-cs-elements: max number of context-sensitive variables,
+ *     objects and methods</li>
+ *     <li>max-heap-fraction: max fraction of the max heap size
+ *     which can be used</li>
+ * </ul>
+ */
+class SolverBudget {
+
+    /**
+     * Number of work-list polls between two checks.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final long timeLimit;
+
+    private final long maxCSElements;
+
+    private final double maxHeapFraction;
+
+    private final boolean enabled;
+
+    private long startTime;
+
+    private long polls;
+
+    SolverBudget(AnalysisOptions options) {
+        this.timeLimit = getNumber(options, "time-limit").longValue();
+        this.maxCSElements = getNumber(options, "max-cs-elements").longValue();
+        this.maxHeapFraction = getNumber(options, "max-heap-fraction").doubleValue();
+        this.enabled = timeLimit >= 0 || maxCSElements >= 0 || maxHeapFraction >= 0;
+    }
+
+    private static Number getNumber(AnalysisOptions options, String key) {
+        Object value = options.get(key);
+        return value instanceof Number n ? n : -1;
+    }
+
+    void onStart() {
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks the budgets. As checking is not free, the budgets are
+     * actually checked once every {@link #CHECK_INTERVAL} calls.
+     *
+     * @return description of the exceeded budget,
+     * or null if no budget is exceeded.
+     */
+    String check(CSManager csManager, CSCallGraph callGraph) {
+        if (!enabled || ++polls % CHECK_INTERVAL != 0) {
+            return null;
+        }
+        if (timeLimit >= 0) {
+            long elapsed = (System.currentTimeMillis() - startTime) / 1000;
+            if (elapsed >= timeLimit) {
+                return String.format("time limit (%ds)", timeLimit);
+            }
+        }
+        if (maxCSElements >= 0) {
+            long elements = (long) csManager.getCSVars().size()
+                    + csManager.getObjects().size()
+                    + callGraph.getNumberOfMethods();
+            if (elements >= maxCSElements) {
+                return String.format("max CS elements (%d)", maxCSElements);
+            }
+        }
+        if (maxHeapFraction >= 0) {
+            Runtime runtime = Runtime.getRuntime();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if (used >= maxHeapFraction * runtime.maxMemory()) {
+                return String.format("max heap fraction (%.2f)", maxHeapFraction);
+            }
+        }
+        return null;
+    }
+}
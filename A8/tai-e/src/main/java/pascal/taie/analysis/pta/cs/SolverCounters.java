@@ -0,0 +1,142 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deterministic work counters of {@link Solver}, aggregated per analysis.
+ * Unlike the timings collected by {@link SolverMetrics}, the counters
+ * depend only on the analyzed program and the solving algorithm, thus
+ * they are stable across machines and can be checked against a baseline
+ * to catch algorithmic regressions.
+ */
+public final class SolverCounters {
+
+    private static final ConcurrentMap<String, SolverCounters> counters =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder polls = new LongAdder();
+
+    private final LongAdder propagations = new LongAdder();
+
+    /**
+     * Total size of the deltas propagated by {@link Solver}.
+     */
+    private final LongAdder deltaVolume = new LongAdder();
+
+    private final LongAdder pfgEdges = new LongAdder();
+
+    /**
+     * Number of callee resolutions of call sites.
+     */
+    private final LongAdder dispatches = new LongAdder();
+
+    /**
+     * Number of points-to sets allocated by {@link Solver}.
+     */
+    private final LongAdder pointsToSets = new LongAdder();
+
+    private final LongAdder callEdges = new LongAdder();
+
+    private final LongAdder reachableMethods = new LongAdder();
+
+    private SolverCounters() {
+    }
+
+    /**
+     * @return the counters of given analysis.
+     */
+    static SolverCounters get(String analysis) {
+        return counters.computeIfAbsent(analysis, unused -> new SolverCounters());
+    }
+
+    void onPoll() {
+        polls.increment();
+    }
+
+    /**
+     * Called for each call to {@link Solver}'s propagate.
+     *
+     * @param deltaSize size of the propagated delta, which may be 0
+     */
+    void onPropagate(int deltaSize) {
+        propagations.increment();
+        deltaVolume.add(deltaSize);
+    }
+
+    void onNewPFGEdge() {
+        pfgEdges.increment();
+    }
+
+    /**
+     * Called when the callee of a call site is resolved.
+     */
+    void onDispatch() {
+        dispatches.increment();
+    }
+
+    void onNewPointsToSet() {
+        pointsToSets.increment();
+    }
+
+    void onNewCallEdge() {
+        callEdges.increment();
+    }
+
+    void onFinish(int reachableMethods) {
+        this.reachableMethods.add(reachableMethods);
+    }
+
+    /**
+     * Clears the counters of all analyses. The solvers created before
+     * resetting do not count anymore.
+     */
+    public static void reset() {
+        counters.clear();
+    }
+
+    /**
+     * @return the current counters of all analyses, from names of
+     * the form "analysis.counter" to the values, in order of the names.
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((analysis, c) -> {
+            result.put(analysis + ".polls", c.polls.sum());
+            result.put(analysis + ".propagations", c.propagations.sum());
+            result.put(analysis + ".delta-volume", c.deltaVolume.sum());
+            result.put(analysis + ".pfg-edges", c.pfgEdges.sum());
+            result.put(analysis + ".dispatches", c.dispatches.sum());
+            result.put(analysis + ".points-to-sets", c.pointsToSets.sum());
+            result.put(analysis + ".call-edges", c.callEdges.sum());
+            result.put(analysis + ".reachable-methods", c.reachableMethods.sum());
+        });
+        return result;
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects metrics of {@link Solver}, including:
+ * <ul>
+ *     <li>size of the work-list over time</li>
+ *     <li>propagations and PFG edges per kind of pointers</li>
+ *     <li>time and delta volume attributed to each method and context</li>
+ *     <li>discovery rate of call graph edges</li>
+ * </ul>
+ * Metrics are collected only if option "metrics" specifies a report file.
+ * They are emitted as JFR events (which are recorded when a JFR recording
+ * is active), and dumped to the report file in JSON at the end of solving.
+ */
+class SolverMetrics {
+
+    private static final Logger logger = LogManager.getLogger(SolverMetrics.class);
+
+    /**
+     * Number of work-list polls between two samples.
+     */
+    private static final int SAMPLE_INTERVAL = 1024;
+
+    /**
+     * Number of most expensive methods included in the report.
+     */
+    private static final int TOP_METHODS = 100;
+
+    private final String reportFile;
+
+    private final boolean enabled;
+
+    private long startTime;
+
+    private long polls;
+
+    private long callEdges;
+
+    private long lastSampleTime;
+
+    private long lastSampleCallEdges;
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    private final Map<String, PropagationCounter> propagations = new TreeMap<>();
+
+    private final Map<String, Long> pfgEdges = new TreeMap<>();
+
+    private final Map<CSMethod, MethodCounter> methods = Maps.newMap();
+
+    SolverMetrics(String reportFile) {
+        this.reportFile = reportFile;
+        this.enabled = reportFile != null;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return current time for measuring work attributed to methods,
+     * or 0 if metrics are disabled.
+     */
+    long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void onStart() {
+        if (enabled) {
+            startTime = lastSampleTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called when an entry is polled from the work-list.
+     *
+     * @param workListSize size of the work-list after polling
+     */
+    void onPoll(int workListSize) {
+        if (enabled && ++polls % SAMPLE_INTERVAL == 0) {
+            sample(workListSize);
+        }
+    }
+
+    /**
+     * Called when a non-empty delta is propagated to a pointer.
+     */
+    void onPropagate(Pointer pointer, int deltaSize) {
+        if (enabled) {
+            propagations.computeIfAbsent(getKind(pointer),
+                    k -> new PropagationCounter()).add(deltaSize);
+        }
+    }
+
+    /**
+     * Called when a work-list entry of a variable in given method
+     * has been processed.
+     *
+     * @param startTime the time returned by {@link #now()} before
+     *                  processing the entry
+     */
+    void onProcessed(CSMethod csMethod, int deltaSize, long startTime) {
+        if (enabled) {
+            methods.computeIfAbsent(csMethod, m -> new MethodCounter())
+                    .add(deltaSize, System.nanoTime() - startTime);
+        }
+    }
+
+    void onNewPFGEdge(Pointer source, Pointer target) {
+        if (enabled) {
+            pfgEdges.merge(getKind(source) + " -> " + getKind(target),
+                    1L, Long::sum);
+        }
+    }
+
+    void onNewCallEdge() {
+        if (enabled) {
+            ++callEdges;
+        }
+    }
+
+    void onFinish(int reachableMethods) {
+        if (!enabled) {
+            return;
+        }
+        sample(0);
+        long elapsed = System.nanoTime() - startTime;
+        propagations.forEach((kind, counter) -> {
+            PropagationEvent event = new PropagationEvent();
+            event.pointerKind = kind;
+            event.propagations = counter.count;
+            event.deltaVolume = counter.volume;
+            event.commit();
+        });
+        List<MethodCost> methodCosts = new ArrayList<>();
+        methods.forEach((csMethod, counter) -> methodCosts.add(new MethodCost(
+                csMethod.getMethod().toString(),
+                csMethod.getContext().toString(),
+                counter.time, counter.deltaVolume, counter.polls)));
+        methodCosts.sort(Comparator.comparingLong(MethodCost::timeNanos).reversed());
+        Map<JMethod, MethodCounter> ciMethods = Maps.newMap();
+        methods.forEach((csMethod, counter) -> ciMethods.computeIfAbsent(
+                csMethod.getMethod(), m -> new MethodCounter()).add(counter));
+        List<MethodCost> ciMethodCosts = new ArrayList<>();
+        ciMethods.forEach((method, counter) -> ciMethodCosts.add(new MethodCost(
+                method.toString(), null,
+                counter.time, counter.deltaVolume, counter.polls)));
+        ciMethodCosts.sort(Comparator.comparingLong(MethodCost::timeNanos).reversed());
+        methodCosts.stream().limit(TOP_METHODS).forEach(cost -> {
+            MethodCostEvent event = new MethodCostEvent();
+            event.method = cost.method();
+            event.context = cost.context();
+            event.time = cost.timeNanos();
+            event.deltaVolume = cost.deltaVolume();
+            event.polls = cost.polls();
+            event.commit();
+        });
+        Map<String, Map<String, Long>> propagationReport = new TreeMap<>();
+        propagations.forEach((kind, counter) -> propagationReport.put(kind,
+                Map.of("propagations", counter.count,
+                        "deltaVolume", counter.volume)));
+        Report report = new Report(elapsed / 1_000_000, polls, callEdges,
+                reachableMethods, samples, propagationReport, pfgEdges,
+                methodCosts.stream().limit(TOP_METHODS).toList(),
+                ciMethodCosts.stream().limit(TOP_METHODS).toList());
+        File file = new File(reportFile);
+        logger.info("Dumping solver metrics to {} ...", file);
+        try {
+            new ObjectMapper()
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValue(file, report);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump solver metrics", e);
+        }
+    }
+
+    private void sample(int workListSize) {
+        long time = System.nanoTime();
+        long interval = time - lastSampleTime;
+        double callEdgeRate = interval == 0 ? 0 :
+                (callEdges - lastSampleCallEdges) * 1e9 / interval;
+        Sample sample = new Sample((time - startTime) / 1_000_000,
+                polls, workListSize, callEdges, callEdgeRate);
+        samples.add(sample);
+        lastSampleTime = time;
+        lastSampleCallEdges = callEdges;
+        WorkListEvent event = new WorkListEvent();
+        event.polls = sample.polls();
+        event.workListSize = sample.workListSize();
+        event.callEdges = sample.callEdges();
+        event.callEdgeRate = sample.callEdgesPerSecond();
+        event.commit();
+    }
+
+    private static String getKind(Pointer pointer) {
+        return pointer.getClass().getSimpleName();
+    }
+
+    private static class PropagationCounter {
+
+        private long count;
+
+        private long volume;
+
+        private void add(int deltaSize) {
+            ++count;
+            volume += deltaSize;
+        }
+    }
+
+    private static class MethodCounter {
+
+        private long time;
+
+        private long deltaVolume;
+
+        private long polls;
+
+        private void add(int deltaSize, long elapsed) {
+            time += elapsed;
+            deltaVolume += deltaSize;
+            ++polls;
+        }
+
+        private void add(MethodCounter other) {
+            time += other.time;
+            deltaVolume += other.deltaVolume;
+            polls += other.polls;
+        }
+    }
+
+    record Sample(long elapsedMillis, long polls, int workListSize,
+            long callEdges, double callEdgesPerSecond) {
+    }
+
+    record MethodCost(String method, String context, long timeNanos,
+            long deltaVolume, long polls) {
+    }
+
+    record Report(long elapsedMillis, long polls, long callEdges,
+            int reachableMethods, List<Sample> workList,
+            Map<String, Map<String, Long>> propagations,
+            Map<String, Long> pfgEdges,
+            List<MethodCost> methods,
+            List<MethodCost> contextInsensitiveMethods) {
+    }
+
+    @Name("pascal.taie.pta.WorkList")
+    @Label("Work-List Sample")
+    @Category({"Tai-e", "Pointer Analysis"})
+    @Description("Size of the work-list and number of call graph edges")
+    static class WorkListEvent extends Event {
+
+        @Label("Polls")
+        long polls;
+
+        @Label("Work-List Size")
+        int workListSize;
+
+        @Label("Call Edges")
+        long callEdges;
+
+        @Label("Call Edges per Second")
+        double callEdgeRate;
+    }
+
+    @Name("pascal.taie.pta.Propagation")
+    @Label("Propagations")
+    @Category({"Tai-e", "Pointer Analysis"})
+    @Description("Propagations and delta volume of a kind of pointers")
+    static class PropagationEvent extends Event {
+
+        @Label("Pointer Kind")
+        String pointerKind;
+
+        @Label("Propagations")
+        long propagations;
+
+        @Label("Delta Volume")
+        long deltaVolume;
+    }
+
+    @Name("pascal.taie.pta.MethodCost")
+    @Label("Method Cost")
+    @Category({"Tai-e", "Pointer Analysis"})
+    @Description("Solving time and delta volume attributed to a method under a context")
+    static class MethodCostEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("Context")
+        String context;
+
+        @Label("Time")
+        @Timespan
+        long time;
+
+        @Label("Delta Volume")
+        long deltaVolume;
+
+        @Label("Polls")
+        long polls;
+    }
+}
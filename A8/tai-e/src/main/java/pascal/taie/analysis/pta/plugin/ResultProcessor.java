@@ -32,22 +32,24 @@ import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
@@ -56,8 +58,9 @@ import static pascal.taie.util.collection.CollectionUtils.sum;
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
- * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * Pointers are rendered and sorted in parallel, and points-to sets are
+ * rendered and written (or compared) in batches, so that only the strings
+ * of a batch are alive at a time.
  */
 public class ResultProcessor {
 
@@ -72,6 +75,16 @@ public class ResultProcessor {
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Size of the buffer for dumping points-to sets.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of points-to sets which are rendered in a parallel batch.
+     */
+    private static final int BATCH_SIZE = 1 << 14;
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -134,99 +147,247 @@ public class ResultProcessor {
 
     private static void dumpPointsToSet(PointerAnalysisResult result,
                                         String output, boolean taintEnabled) {
-        PrintStream out;
+        Writer out;
         if (output != null) {  // if output file is given, then dump to the file
-            File outFile = new File(output);
+            Path outFile = Path.of(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                out = new BufferedWriter(Channels.newWriter(
+                        FileChannel.open(outFile, StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE),
+                        StandardCharsets.UTF_8), BUFFER_SIZE);
                 logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
         } else {  // otherwise, dump to System.out
-            out = System.out;
-        }
-        dumpPointers(out, result.getCSVars(), "variables");
-        dumpPointers(out, result.getStaticFields(), "static fields");
-        dumpPointers(out, result.getInstanceFields(), "instance fields");
-        dumpPointers(out, result.getArrayIndexes(), "array indexes");
-        if (taintEnabled) {
-            dumpTaintFlows(out, result);
+            out = new BufferedWriter(new OutputStreamWriter(System.out), BUFFER_SIZE);
         }
-        if (out != System.out) {
-            out.close();
+        try {
+            dumpPointers(out, result.getCSVars(), "variables");
+            dumpPointers(out, result.getStaticFields(), "static fields");
+            dumpPointers(out, result.getInstanceFields(), "instance fields");
+            dumpPointers(out, result.getArrayIndexes(), "array indexes");
+            if (taintEnabled) {
+                dumpTaintFlows(out, result);
+            }
+            if (output != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump points-to set", e);
         }
     }
 
-    private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
-        out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
-        out.println();
+    private static void dumpPointers(Writer out, Collection<? extends Pointer> pointers,
+                                     String desc) throws IOException {
+        writeLine(out, HEADER + desc);
+        forEachPointsToSet(sortPointers(pointers),
+                (entry, pts) -> writeLine(out, entry.key() + SEP + pts));
+        writeLine(out, "");
+    }
+
+    private static void writeLine(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write(System.lineSeparator());
     }
 
+    /**
+     * Compares points-to sets of all pointers with the ones in input file.
+     * Both sides are sorted by pointers, so the comparison is a streaming
+     * merge which does not load the input file into memory.
+     */
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
-        Map<String, Pointer> pointers = new LinkedHashMap<>();
-        addPointers(pointers, result.getCSVars());
-        addPointers(pointers, result.getStaticFields());
-        addPointers(pointers, result.getInstanceFields());
-        addPointers(pointers, result.getArrayIndexes());
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
-            if (!given.equals(expected)) {
-                mismatches.add(String.format("%s, expected: %s, given: %s",
-                        pointerStr, expected, given));
-            }
-        });
-        inputs.keySet()
-                .stream()
-                .filter(Predicate.not(pointers::containsKey))
-                .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
-                    mismatches.add(String.format("%s, expected: %s, given: null",
-                            pointerStr, expected));
-                });
+        try (ExpectedPointsToSets expected = new ExpectedPointsToSets(input)) {
+            comparePointers(expected, result.getCSVars(), "variables", mismatches);
+            comparePointers(expected, result.getStaticFields(), "static fields", mismatches);
+            comparePointers(expected, result.getInstanceFields(), "instance fields", mismatches);
+            comparePointers(expected, result.getArrayIndexes(), "array indexes", mismatches);
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
         if (!mismatches.isEmpty()) {
             throw new AnalysisException("Mismatches of points-to set\n" +
                     String.join("\n", mismatches));
         }
     }
 
-    private static Map<String, String> readPointsToSets(String input) {
-        try {
-            Map<String, String> result = new LinkedHashMap<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.contains(SEP))
-                    .map(line -> line.split(SEP))
-                    .forEach(s -> result.put(s[0], s[1]));
-            return result;
-        } catch (IOException e) {
-            throw new AnalysisException(
-                    "Failed to read points-to set from " + input, e);
+    private static void comparePointers(ExpectedPointsToSets expected,
+                                        Collection<? extends Pointer> pointers,
+                                        String desc, List<String> mismatches)
+            throws IOException {
+        expected.enterSection(HEADER + desc);
+        forEachPointsToSet(sortPointers(pointers), (entry, given) -> {
+            String pointerStr = entry.key();
+            int cmp;
+            while ((cmp = expected.compareTo(pointerStr)) < 0) {
+                mismatches.add(String.format("%s, expected: %s, given: null",
+                        expected.getPointer(), expected.getPointsToSet()));
+                expected.next();
+            }
+            String expectedPts = null;
+            if (cmp == 0) {
+                expectedPts = expected.getPointsToSet();
+                expected.next();
+            }
+            if (!given.equals(expectedPts)) {
+                mismatches.add(String.format("%s, expected: %s, given: %s",
+                        pointerStr, expectedPts, given));
+            }
+        });
+        for (; expected.getPointer() != null; expected.next()) {
+            mismatches.add(String.format("%s, expected: %s, given: null",
+                    expected.getPointer(), expected.getPointsToSet()));
         }
     }
 
-    private static void addPointers(Map<String, Pointer> map,
-                                    Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+    /**
+     * Renders all pointers and sorts them by their string representations
+     * in parallel.
+     */
+    private static List<SortedPointer> sortPointers(
+            Collection<? extends Pointer> pointers) {
+        return pointers.parallelStream()
+                .map(p -> new SortedPointer(p.toString(), p))
+                .sorted(Comparator.comparing(SortedPointer::key))
+                .toList();
+    }
+
+    /**
+     * Renders points-to sets of given pointers in parallel batches, and
+     * passes them to the consumer in the order of the pointers.
+     * Only one batch of rendered points-to sets is alive at a time.
+     */
+    private static void forEachPointsToSet(List<SortedPointer> pointers,
+                                           PointsToSetConsumer consumer)
+            throws IOException {
+        for (int from = 0; from < pointers.size(); from += BATCH_SIZE) {
+            List<SortedPointer> batch = pointers.subList(
+                    from, Math.min(from + BATCH_SIZE, pointers.size()));
+            String[] rendered = batch.parallelStream()
+                    .map(p -> toString(p.pointer().getPointsToSet()))
+                    .toArray(String[]::new);
+            for (int i = 0; i < rendered.length; ++i) {
+                consumer.accept(batch.get(i), rendered[i]);
+            }
+        }
+    }
+
+    /**
+     * A pointer with its string representation as the sort key.
+     */
+    private record SortedPointer(String key, Pointer pointer) {
+    }
+
+    @FunctionalInterface
+    private interface PointsToSetConsumer {
+        void accept(SortedPointer pointer, String pts) throws IOException;
+    }
+
+    /**
+     * Sequential reader of points-to sets in a dumped file.
+     * The pointers in each section are expected to be sorted,
+     * as written by {@link #dumpPointers}.
+     */
+    private static class ExpectedPointsToSets implements Closeable {
+
+        private final String input;
+
+        private final BufferedReader reader;
+
+        /**
+         * Next unread line of the file.
+         */
+        private String line;
+
+        /**
+         * Current pointer and its points-to set,
+         * or null if current section has been exhausted.
+         */
+        private String pointer;
+
+        private String pts;
+
+        private ExpectedPointsToSets(String input) throws IOException {
+            this.input = input;
+            this.reader = Files.newBufferedReader(Path.of(input));
+            this.line = reader.readLine();
+        }
+
+        /**
+         * Moves to the first pointer of the section with given header.
+         * If the section is absent, the section is regarded as empty.
+         */
+        private void enterSection(String header) throws IOException {
+            while (line != null && !line.equals(header)) {
+                line = reader.readLine();
+            }
+            if (line != null) {
+                line = reader.readLine();
+            }
+            pointer = null;
+            next();
+        }
+
+        /**
+         * Moves to the next pointer in current section.
+         */
+        private void next() throws IOException {
+            String prev = pointer;
+            if (line != null && line.contains(SEP)) {
+                String[] s = line.split(SEP);
+                pointer = s[0];
+                pts = s[1];
+                line = reader.readLine();
+                if (prev != null && prev.compareTo(pointer) > 0) {
+                    throw new AnalysisException("Points-to sets in " + input
+                            + " are not sorted, " + prev + " precedes " + pointer);
+                }
+            } else {
+                pointer = null;
+                pts = null;
+            }
+        }
+
+        /**
+         * Compares current pointer with given one. An exhausted
+         * section is regarded as greater than any pointer.
+         */
+        private int compareTo(String other) {
+            return pointer == null ? 1 : pointer.compareTo(other);
+        }
+
+        private String getPointer() {
+            return pointer;
+        }
+
+        private String getPointsToSet() {
+            return pts;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
     }
 
     private static String toString(PointsToSet pts) {
         return Streams.toString(pts.objects());
     }
 
-    private static void dumpTaintFlows(PrintStream out, PointerAnalysisResult result) {
+    private static void dumpTaintFlows(Writer out, PointerAnalysisResult result)
+            throws IOException {
         Set<TaintFlow> taintFlows = getTaintFlows(result);
-        out.printf("Detected %d taint flow(s):%n", taintFlows.size());
-        taintFlows.forEach(out::println);
-        out.println();
+        writeLine(out, String.format("Detected %d taint flow(s):", taintFlows.size()));
+        for (TaintFlow taintFlow : taintFlows) {
+            writeLine(out, taintFlow.toString());
+        }
+        writeLine(out, "");
     }
 
     /**
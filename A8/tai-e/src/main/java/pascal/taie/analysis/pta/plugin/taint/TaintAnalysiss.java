@@ -25,19 +25,28 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class TaintAnalysiss {
 
@@ -132,30 +141,52 @@ public class TaintAnalysiss {
         solver.getResult().storeResult(getClass().getName(), taintFlows);
     }
 
+    /**
+     * Collects taint flows in two phases. First, it visits only the call
+     * edges into reachable sink methods and resolves the context-sensitive
+     * variables of their sink arguments. This phase touches the
+     * CSManager, which is not thread-safe, so it runs sequentially.
+     * Then, the points-to sets of these arguments are checked in parallel,
+     * and the resulting flows are merged into a sorted set.
+     */
     private Set<TaintFlow> collectTaintFlows() {
-        Set<TaintFlow> taintFlows = new TreeSet<>();
         PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
-        result.getCSCallGraph().edges().forEach(edge -> {
-            var callSite = edge.getCallSite().getCallSite();
-            var callSiteContext = edge.getCallSite().getContext();
-            var callee = edge.getCallee().getMethod();
-            var calleeContext = edge.getCallee().getContext();
-            // secret = source()
-
-            for (int i = 0; i < callSite.getInvokeExp().getArgCount(); i++) {
-                if (isSink(callee, i)) {
-                    var arg = callSite.getInvokeExp().getArg(i);
-                    var argPointTo = csManager.getCSVar(callSiteContext, arg).getPointsToSet();
-                    for (CSObj csObj : argPointTo) {
-                        if (manager.isTaint(csObj.getObject()))
-                            taintFlows.add(new TaintFlow((Invoke) csObj.getObject().getAllocation(), callSite, i));
-                    }
-                }
-            }
-        });
-
-        return taintFlows;
+        CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+        MultiMap<JMethod, Integer> sinkIndexes = Maps.newMultiMap();
+        config.getSinks().forEach(sink ->
+                sinkIndexes.put(sink.method(), sink.index()));
+        List<SinkArg> sinkArgs = new ArrayList<>();
+        callGraph.reachableMethods()
+                .filter(csMethod -> sinkIndexes.containsKey(csMethod.getMethod()))
+                .forEach(csMethod -> {
+                    Set<Integer> indexes = sinkIndexes.get(csMethod.getMethod());
+                    callGraph.edgesInTo(csMethod).forEach(edge -> {
+                        CSCallSite csCallSite = edge.getCallSite();
+                        Invoke callSite = csCallSite.getCallSite();
+                        InvokeExp invokeExp = callSite.getInvokeExp();
+                        for (int i : indexes) {
+                            if (i < invokeExp.getArgCount()) {
+                                CSVar arg = csManager.getCSVar(
+                                        csCallSite.getContext(), invokeExp.getArg(i));
+                                sinkArgs.add(new SinkArg(callSite, i, arg));
+                            }
+                        }
+                    });
+                });
+        return sinkArgs.parallelStream()
+                .filter(sinkArg -> sinkArg.arg().getPointsToSet() != null)
+                .flatMap(sinkArg -> sinkArg.arg().getPointsToSet()
+                        .objects()
+                        .map(CSObj::getObject)
+                        .filter(manager::isTaint)
+                        .map(taint -> new TaintFlow(manager.getSourceCall(taint),
+                                sinkArg.callSite(), sinkArg.index())))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * An argument of a call to a sink method.
+     */
+    private record SinkArg(Invoke callSite, int index, CSVar arg) {
     }
 }
@@ -0,0 +1,379 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.workload;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates compilable Java programs of configurable size and shape
+ * (see {@link WorkloadShape}) for measuring how analyses scale.
+ * The same seed and shape always produce the same program.
+ * <p>
+ * A generated program consists of:
+ * <ul>
+ *     <li>a class hierarchy rooted at {@code H}, whose classes may
+ *     override the virtual method {@code run(Box)};</li>
+ *     <li>container classes {@code Box} and {@code Cell};</li>
+ *     <li>worker methods with arithmetic statements, allocation sites,
+ *     container operations, a virtual call on the hierarchy and calls
+ *     to other worker methods (only to methods with larger index,
+ *     so that the call graph is acyclic);</li>
+ *     <li>taint chains from {@code SourceSink.source()} to
+ *     {@code SourceSink.sink(String)}, with a {@code taint-config.yml}
+ *     describing them;</li>
+ *     <li>main class {@link #MAIN_CLASS}, which calls every worker method
+ *     that has no caller, and every chain.</li>
+ * </ul>
+ * The generated code only uses the Java features used by the
+ * hand-written test programs.
+ */
+public final class WorkloadGenerator {
+
+    private static final Logger logger = LogManager.getLogger(WorkloadGenerator.class);
+
+    public static final String MAIN_CLASS = "Workload";
+
+    /**
+     * Number of worker methods per worker class.
+     */
+    private static final int METHODS_PER_CLASS = 50;
+
+    /**
+     * Number of calls per entry method of main class, which keeps the
+     * entry methods below the size limit of Java methods.
+     */
+    private static final int CALLS_PER_ENTRY = 200;
+
+    private final WorkloadShape shape;
+
+    private final Random random;
+
+    private final Path outDir;
+
+    /**
+     * Number of generated statements.
+     */
+    private long statements;
+
+    private WorkloadGenerator(WorkloadShape shape, long seed, Path outDir) {
+        this.shape = shape;
+        this.random = new Random(seed);
+        this.outDir = outDir;
+    }
+
+    /**
+     * Generates a program of given shape from given seed into outDir.
+     *
+     * @return the number of generated statements.
+     */
+    public static long generate(WorkloadShape shape, long seed, Path outDir) {
+        WorkloadGenerator generator = new WorkloadGenerator(shape, seed, outDir);
+        try {
+            Files.createDirectories(outDir);
+            generator.generate();
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to generate workload in " + outDir, e);
+        }
+        logger.info("Generated {} statements in {} (seed {}, {})",
+                generator.statements, outDir, seed, shape);
+        return generator.statements;
+    }
+
+    /**
+     * Usage: {@code <out-dir> [seed] [shape]}, where shape is given in
+     * the format of {@link WorkloadShape#parse(String)}.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: <out-dir> [seed] [key=value,...]");
+            return;
+        }
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        WorkloadShape shape = WorkloadShape.parse(args.length > 2 ? args[2] : null);
+        generate(shape, seed, Path.of(args[0]));
+    }
+
+    private void generate() throws IOException {
+        List<String> hierarchy = generateHierarchy();
+        generateContainers();
+        BitSet called = generateWorkers(hierarchy);
+        generateTaintChains();
+        generateMain(called);
+    }
+
+    /**
+     * @return names of all classes in the hierarchy.
+     */
+    private List<String> generateHierarchy() throws IOException {
+        List<String> classes = new ArrayList<>();
+        classes.add("H");
+        write("H", """
+                class H {
+                    Object run(Box b) {
+                        return b.f;
+                    }
+                }
+                """);
+        statements += 1;
+        List<String> upper = List.of("H");
+        for (int d = 1; d <= shape.depth(); ++d) {
+            List<String> level = new ArrayList<>();
+            for (int i = 0; i < shape.width(); ++i) {
+                String name = "H" + d + "_" + i;
+                String parent = upper.get(random.nextInt(upper.size()));
+                StringBuilder code = new StringBuilder();
+                code.append("class ").append(name).append(" extends ")
+                        .append(parent).append(" {\n");
+                if (random.nextBoolean()) {
+                    code.append("""
+                                Object run(Box b) {
+                                    b.g = b.f;
+                                    return b.g;
+                                }
+                            """);
+                    statements += 2;
+                }
+                code.append("}\n");
+                write(name, code.toString());
+                level.add(name);
+            }
+            classes.addAll(level);
+            upper = level;
+        }
+        return classes;
+    }
+
+    private void generateContainers() throws IOException {
+        write("Box", """
+                class Box {
+                    Object f;
+                    Object g;
+                }
+                """);
+        write("Cell", """
+                class Cell {
+                    Object val;
+                    Cell next;
+
+                    Cell(Object val, Cell next) {
+                        this.val = val;
+                        this.next = next;
+                    }
+                }
+                """);
+        statements += 2;
+    }
+
+    private static String workerClass(int method) {
+        return "W" + method / METHODS_PER_CLASS;
+    }
+
+    private static String workerMethod(int method) {
+        return workerClass(method) + ".m" + method;
+    }
+
+    /**
+     * @return the worker methods that are called by other worker methods.
+     */
+    private BitSet generateWorkers(List<String> hierarchy) throws IOException {
+        BitSet called = new BitSet(shape.methods());
+        StringBuilder code = null;
+        for (int m = 0; m < shape.methods(); ++m) {
+            if (m % METHODS_PER_CLASS == 0) {
+                if (code != null) {
+                    code.append("}\n");
+                    write(workerClass(m - 1), code.toString());
+                }
+                code = new StringBuilder("class " + workerClass(m) + " {\n");
+            }
+            generateWorker(code, m, hierarchy, called);
+        }
+        code.append("}\n");
+        write(workerClass(shape.methods() - 1), code.toString());
+        return called;
+    }
+
+    private void generateWorker(StringBuilder code, int m,
+                                List<String> hierarchy, BitSet called) {
+        code.append("\n    static Object m").append(m).append("(Object p, int x) {\n");
+        // allocations and container operations
+        code.append("        Box b = new Box();\n");
+        code.append("        b.f = p;\n");
+        code.append("        Cell c = null;\n");
+        statements += 3;
+        for (int i = 0; i < shape.allocations(); ++i) {
+            code.append("        c = new Cell(new Box(), c);\n");
+            statements += 2;
+        }
+        for (int i = 0; i < shape.containers(); ++i) {
+            if (random.nextBoolean()) {
+                code.append("        c = new Cell(b.f, c);\n");
+                code.append("        b.g = c.val;\n");
+            } else {
+                code.append("        if (c != null) {\n");
+                code.append("            b.f = c.val;\n");
+                code.append("        }\n");
+                code.append("        b.g = b.f;\n");
+            }
+            statements += 2;
+        }
+        // arithmetic statements for data-flow analyses
+        for (int i = 0; i < shape.methodLength(); ++i) {
+            int k = random.nextInt(100);
+            switch (random.nextInt(3)) {
+                case 0 -> code.append("        x = x * 3 + ").append(k).append(";\n");
+                case 1 -> code.append("        int y").append(i).append(" = ")
+                        .append(k).append(" - x;\n");
+                default -> code.append("        if (x > ").append(k)
+                        .append(") {\n            x = x - ").append(k)
+                        .append(";\n        }\n");
+            }
+            ++statements;
+        }
+        // virtual call on two possible receiver classes
+        String c1 = hierarchy.get(random.nextInt(hierarchy.size()));
+        String c2 = hierarchy.get(random.nextInt(hierarchy.size()));
+        code.append("        H h;\n");
+        code.append("        if (x > 0) {\n            h = new ").append(c1)
+                .append("();\n        } else {\n            h = new ")
+                .append(c2).append("();\n        }\n");
+        code.append("        Object r = h.run(b);\n");
+        statements += 3;
+        // calls to worker methods with larger index
+        for (int i = 0; i < shape.fanOut() && m + 1 < shape.methods(); ++i) {
+            int callee = m + 1 + random.nextInt(
+                    Math.min(shape.methods() - m - 1, 4 * METHODS_PER_CLASS));
+            called.set(callee);
+            code.append("        r = ").append(workerMethod(callee))
+                    .append("(r, x + ").append(i).append(");\n");
+            ++statements;
+        }
+        code.append("        return r;\n    }\n");
+        ++statements;
+    }
+
+    private void generateTaintChains() throws IOException {
+        write("SourceSink", """
+                class SourceSink {
+
+                    static String source() {
+                        return new String();
+                    }
+
+                    static void sink(String s) {
+                    }
+                }
+                """);
+        statements += 2;
+        Files.writeString(outDir.resolve("taint-config.yml"), """
+                sources:
+                  - { method: "<SourceSink: java.lang.String source()>", type: "java.lang.String" }
+
+                sinks:
+                  - { method: "<SourceSink: void sink(java.lang.String)>", index: 0 }
+                """, StandardCharsets.UTF_8);
+        for (int t = 0; t < shape.taintChains(); ++t) {
+            StringBuilder code = new StringBuilder("class T" + t + " {\n");
+            code.append("""
+
+                        static void run() {
+                            String s = SourceSink.source();
+                            SourceSink.sink(step0(s));
+                            SourceSink.sink(step0(new String()));
+                        }
+                    """);
+            statements += 5;
+            for (int i = 0; i < shape.chainLength(); ++i) {
+                code.append("\n    static String step").append(i).append("(String s) {\n");
+                // pass the value through a container
+                code.append("        Box b = new Box();\n");
+                code.append("        b.f = s;\n");
+                code.append("        String r = (String) b.f;\n");
+                if (i + 1 < shape.chainLength()) {
+                    code.append("        r = step").append(i + 1).append("(r);\n");
+                    ++statements;
+                }
+                code.append("        return r;\n    }\n");
+                statements += 4;
+            }
+            code.append("}\n");
+            write("T" + t, code.toString());
+        }
+    }
+
+    private void generateMain(BitSet called) throws IOException {
+        List<Integer> roots = new ArrayList<>();
+        for (int m = called.nextClearBit(0); m < shape.methods();
+             m = called.nextClearBit(m + 1)) {
+            roots.add(m);
+        }
+        StringBuilder code = new StringBuilder("public class " + MAIN_CLASS + " {\n");
+        code.append("""
+
+                    public static void main(String[] args) {
+                        int x = args.length;
+                        Object o = new Object();
+                """);
+        statements += 2;
+        int entries = (roots.size() + CALLS_PER_ENTRY - 1) / CALLS_PER_ENTRY;
+        for (int e = 0; e < entries; ++e) {
+            code.append("        entry").append(e).append("(o, x);\n");
+            ++statements;
+        }
+        for (int t = 0; t < shape.taintChains(); ++t) {
+            code.append("        T").append(t).append(".run();\n");
+            ++statements;
+        }
+        code.append("    }\n");
+        for (int e = 0; e < entries; ++e) {
+            code.append("\n    static void entry").append(e)
+                    .append("(Object o, int x) {\n");
+            int end = Math.min(roots.size(), (e + 1) * CALLS_PER_ENTRY);
+            for (int i = e * CALLS_PER_ENTRY; i < end; ++i) {
+                code.append("        ").append(workerMethod(roots.get(i)))
+                        .append("(o, x);\n");
+                ++statements;
+            }
+            code.append("    }\n");
+        }
+        code.append("}\n");
+        write(MAIN_CLASS, code.toString());
+    }
+
+    private void write(String className, String code) throws IOException {
+        Files.writeString(outDir.resolve(className + ".java"),
+                code, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.workload;
+
+import pascal.taie.config.ConfigException;
+
+/**
+ * Size and shape of a synthetic workload.
+ *
+ * @param depth        depth of the class hierarchy below its root
+ * @param width        number of classes at each level of the hierarchy
+ * @param methods      number of worker methods
+ * @param methodLength number of arithmetic statements in each worker method
+ * @param fanOut       number of worker methods called by each worker method
+ * @param allocations  number of allocation sites in each worker method
+ * @param containers   number of container (field) operations in each
+ *                     worker method
+ * @param taintChains  number of source-to-sink chains
+ * @param chainLength  number of methods that each chain passes through
+ */
+public record WorkloadShape(int depth, int width, int methods,
+                            int methodLength, int fanOut, int allocations,
+                            int containers, int taintChains, int chainLength) {
+
+    public static final WorkloadShape DEFAULT =
+            new WorkloadShape(3, 4, 100, 10, 2, 2, 2, 4, 3);
+
+    public WorkloadShape {
+        if (depth < 0 || width < 1 || methods < 1 || methodLength < 0
+                || fanOut < 0 || allocations < 0 || containers < 0
+                || taintChains < 0 || chainLength < 1) {
+            throw new ConfigException(String.format(
+                    "Invalid workload shape: depth=%d, width=%d, methods=%d, " +
+                            "methodLength=%d, fanOut=%d, allocations=%d, " +
+                            "containers=%d, taintChains=%d, chainLength=%d",
+                    depth, width, methods, methodLength, fanOut,
+                    allocations, containers, taintChains, chainLength));
+        }
+    }
+
+    /**
+     * Parses a shape from comma-separated {@code key=value} pairs,
+     * e.g., {@code methods=10000,fanOut=3}. Absent keys take the
+     * values of {@link #DEFAULT}.
+     */
+    public static WorkloadShape parse(String spec) {
+        WorkloadShape s = DEFAULT;
+        if (spec == null || spec.isBlank()) {
+            return s;
+        }
+        for (String pair : spec.split(",")) {
+            String[] kv = pair.split("=");
+            if (kv.length != 2) {
+                throw new ConfigException("Invalid workload shape entry: " + pair);
+            }
+            int v;
+            try {
+                v = Integer.parseInt(kv[1].trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigException("Invalid workload shape entry: " + pair, e);
+            }
+            s = switch (kv[0].trim()) {
+                case "depth" -> new WorkloadShape(v, s.width, s.methods,
+                        s.methodLength, s.fanOut, s.allocations,
+                        s.containers, s.taintChains, s.chainLength);
+                case "width" -> new WorkloadShape(s.depth, v, s.methods,
+                        s.methodLength, s.fanOut, s.allocations,
+                        s.containers, s.taintChains, s.chainLength);
+                case "methods" -> new WorkloadShape(s.depth, s.width, v,
+                        s.methodLength, s.fanOut, s.allocations,
+                        s.containers, s.taintChains, s.chainLength);
+                case "methodLength" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        v, s.fanOut, s.allocations,
+                        s.containers, s.taintChains, s.chainLength);
+                case "fanOut" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        s.methodLength, v, s.allocations,
+                        s.containers, s.taintChains, s.chainLength);
+                case "allocations" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        s.methodLength, s.fanOut, v,
+                        s.containers, s.taintChains, s.chainLength);
+                case "containers" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        s.methodLength, s.fanOut, s.allocations,
+                        v, s.taintChains, s.chainLength);
+                case "taintChains" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        s.methodLength, s.fanOut, s.allocations,
+                        s.containers, v, s.chainLength);
+                case "chainLength" -> new WorkloadShape(s.depth, s.width, s.methods,
+                        s.methodLength, s.fanOut, s.allocations,
+                        s.containers, s.taintChains, v);
+                default -> throw new ConfigException(
+                        "Unknown workload shape key: " + kv[0]);
+            };
+        }
+        return s;
+    }
+}
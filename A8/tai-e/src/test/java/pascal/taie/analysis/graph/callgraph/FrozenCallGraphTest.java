@@ -0,0 +1,209 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Before;
+import org.junit.Test;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every query of {@link FrozenCallGraph} answers the same
+ * as the live call graph it was frozen from.
+ */
+public class FrozenCallGraphTest {
+
+    /**
+     * Minimal live call graph over strings.
+     */
+    private static class LiveCallGraph extends AbstractCallGraph<String, String> {
+
+        void addEntryMethod(String method) {
+            entryMethods.add(method);
+            reachableMethods.add(method);
+        }
+
+        void addCallSite(String method, String callSite) {
+            reachableMethods.add(method);
+            callSitesIn.put(method, callSite);
+            callSiteToContainer.put(callSite, method);
+        }
+
+        void addEdge(CallKind kind, String callSite, String callee) {
+            Edge<String, String> edge = new Edge<>(kind, callSite, callee);
+            reachableMethods.add(callee);
+            callSiteToEdges.put(callSite, edge);
+            calleeToEdges.put(callee, edge);
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getResult(Stmt stmt) {
+            return Set.of();
+        }
+    }
+
+    private LiveCallGraph live;
+
+    private FrozenCallGraph<String, String> frozen;
+
+    @Before
+    public void setUp() {
+        live = new LiveCallGraph();
+        live.addEntryMethod("main");
+        live.addEntryMethod("init");
+        live.addCallSite("main", "main@1");
+        live.addCallSite("main", "main@2");
+        live.addCallSite("main", "main@3"); // call site without callees
+        live.addCallSite("init", "init@1");
+        live.addCallSite("foo", "foo@1");
+        live.addCallSite("bar", "bar@1");
+        live.addEdge(CallKind.STATIC, "main@1", "foo");
+        live.addEdge(CallKind.VIRTUAL, "main@2", "bar");
+        live.addEdge(CallKind.VIRTUAL, "main@2", "baz");
+        live.addEdge(CallKind.SPECIAL, "init@1", "foo");
+        live.addEdge(CallKind.STATIC, "foo@1", "foo"); // recursion
+        live.addEdge(CallKind.INTERFACE, "bar@1", "main");
+        live.addEdge(CallKind.OTHER, "bar@1", "leaf");
+        frozen = FrozenCallGraph.freeze(live);
+    }
+
+    @Test
+    public void testFreezeIsIdempotent() {
+        assertTrue(FrozenCallGraph.freeze(frozen) == frozen);
+    }
+
+    @Test
+    public void testGlobalQueries() {
+        assertEquals(list(live.entryMethods()), list(frozen.entryMethods()));
+        assertEquals(list(live.reachableMethods()), list(frozen.reachableMethods()));
+        assertEquals(live.getNumberOfMethods(), frozen.getNumberOfMethods());
+        assertEquals(live.getNumberOfEdges(), frozen.getNumberOfEdges());
+        assertEquals(set(live.edges()), set(frozen.edges()));
+        assertSameSet("nodes", live.getNodes(), frozen.getNodes());
+        assertEquals(6, frozen.getNumberOfCallSites());
+    }
+
+    @Test
+    public void testMethodQueries() {
+        for (String m : methods()) {
+            assertEquals(m, live.contains(m), frozen.contains(m));
+            assertEquals(m, live.hasNode(m), frozen.hasNode(m));
+            assertEquals(m, list(live.callSitesIn(m)), list(frozen.callSitesIn(m)));
+            assertSameSet(m, live.getCallSitesIn(m), frozen.getCallSitesIn(m));
+            assertSameSet(m, live.getCallersOf(m), frozen.getCallersOf(m));
+            assertSameSet(m, live.getCalleesOfM(m), frozen.getCalleesOfM(m));
+            assertEquals(m, set(live.edgesInTo(m)), set(frozen.edgesInTo(m)));
+            assertSameSet(m, live.getPredsOf(m), frozen.getPredsOf(m));
+            assertSameSet(m, live.getSuccsOf(m), frozen.getSuccsOf(m));
+            assertSameSet(m, live.getInEdgesOf(m), frozen.getInEdgesOf(m));
+            assertSameSet(m, live.getOutEdgesOf(m), frozen.getOutEdgesOf(m));
+            for (String n : methods()) {
+                assertEquals(m + "->" + n,
+                        live.hasEdge(m, n), frozen.hasEdge(m, n));
+            }
+        }
+    }
+
+    @Test
+    public void testCallSiteQueries() {
+        for (String cs : live.callSiteToContainer.keySet()) {
+            assertEquals(cs, live.getContainerOf(cs), frozen.getContainerOf(cs));
+            assertSameSet(cs, live.getCalleesOf(cs), frozen.getCalleesOf(cs));
+            assertEquals(cs, set(live.edgesOutOf(cs)), set(frozen.edgesOutOf(cs)));
+        }
+    }
+
+    @Test
+    public void testIdQueries() {
+        for (String m : live.getNodes()) {
+            int id = frozen.getMethodId(m);
+            assertEquals(m, frozen.getMethod(id));
+            assertEquals(Set.copyOf(live.getCallersOf(m)), frozen.callerIdsOf(id)
+                    .mapToObj(frozen::getCallSite)
+                    .collect(Collectors.toSet()));
+        }
+        for (String cs : live.callSiteToContainer.keySet()) {
+            int id = frozen.getCallSiteId(cs);
+            assertEquals(cs, frozen.getCallSite(id));
+            assertEquals(Set.copyOf(live.getCalleesOf(cs)), frozen.calleeIdsOf(id)
+                    .mapToObj(frozen::getMethod)
+                    .collect(Collectors.toSet()));
+        }
+        assertEquals(-1, frozen.getMethodId("absent"));
+        assertEquals(-1, frozen.getCallSiteId("absent@1"));
+    }
+
+    @Test
+    public void testUnknownElements() {
+        assertFalse(frozen.contains("absent"));
+        assertFalse(frozen.hasEdge("main", "absent"));
+        assertTrue(frozen.getCalleesOfM("absent").isEmpty());
+        assertTrue(frozen.getCallersOf("absent").isEmpty());
+        assertTrue(frozen.getCalleesOf("absent@1").isEmpty());
+    }
+
+    @Test
+    public void testLaterChangesNotReflected() {
+        live.addEdge(CallKind.STATIC, "main@3", "late");
+        assertFalse(frozen.contains("late"));
+        assertTrue(frozen.getCalleesOf("main@3").isEmpty());
+        assertEquals(7, frozen.getNumberOfEdges());
+    }
+
+    /**
+     * @return reachable methods plus one that is not in the graph.
+     */
+    private List<String> methods() {
+        return Stream.concat(live.reachableMethods(), Stream.of("absent"))
+                .toList();
+    }
+
+    /**
+     * Compares sets by their elements. The sets returned by the live
+     * call graph are views that do not implement value equality.
+     */
+    private static <T> void assertSameSet(String message, Set<T> expected, Set<T> actual) {
+        assertEquals(message, Set.copyOf(expected), Set.copyOf(actual));
+    }
+
+    private static <T> List<T> list(Stream<T> stream) {
+        return stream.toList();
+    }
+
+    private static <T> Set<T> set(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+}
@@ -23,51 +23,72 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
+/**
+ * Runs each test case under each work-list policy of the solver,
+ * which must all produce the same results.
+ */
+@RunWith(Parameterized.class)
 public class TaintTest {
 
     static final String DIR = "taint";
 
+    @Parameterized.Parameters(name = "work-list:{0}")
+    public static List<String> workLists() {
+        return List.of("fifo", "lifo", "topo", "sharded");
+    }
+
+    @Parameterized.Parameter
+    public String workList;
+
+    private void test(String main, String opts) {
+        Tests.testCSPTAInMode(workList, DIR, main, opts + ";work-list:" + workList);
+    }
+
     @Test
     public void testSimpleTaint() {
-        Tests.testCSPTA(DIR, "SimpleTaint",
+        test("SimpleTaint",
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testArgToResult() {
-        Tests.testCSPTA(DIR, "ArgToResult",
+        test("ArgToResult",
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testBaseToResult() {
-        Tests.testCSPTA(DIR, "BaseToResult",
+        test("BaseToResult",
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testStringAppend() {
-        Tests.testCSPTA(DIR, "StringAppend",
+        test("StringAppend",
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testOneCallTaint() {
-        Tests.testCSPTA(DIR, "OneCallTaint",
+        test("OneCallTaint",
                 "cs:1-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testInterTaintTransfer() {
-        Tests.testCSPTA(DIR, "InterTaintTransfer",
+        test("InterTaintTransfer",
                 "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
     @Test
     public void testTaintInList() {
-        Tests.testCSPTA(DIR, "TaintInList",
+        test("TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 }